@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.benchmark;
+
+import io.rainfall.SequenceGenerator;
+
+/**
+ * Single threaded sequence cycling over [0, size[, so that the benchmarks keep hitting the entries loaded in
+ * the cache.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class CyclingSequenceGenerator implements SequenceGenerator {
+
+  private final long size;
+  private long next = 0;
+
+  public CyclingSequenceGenerator(final long size) {
+    this.size = size;
+  }
+
+  @Override
+  public long next() {
+    long current = next;
+    next = (current + 1 == size) ? 0 : current + 1;
+    return current;
+  }
+
+  @Override
+  public String getDescription() {
+    return "Cycling over " + size + " keys";
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.benchmark;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.ObjectGenerator;
+import io.rainfall.Operation;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.ehcache2.CacheDefinition;
+import io.rainfall.ehcache2.Ehcache2Operations;
+import io.rainfall.generator.LongGenerator;
+import io.rainfall.statistics.StatisticsHolder;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CacheConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.rainfall.ehcache2.CacheDefinition.cache;
+import static io.rainfall.generator.ByteArrayGenerator.fixedLengthByteArray;
+import static java.util.Collections.singletonList;
+
+/**
+ * Each Ehcache 2 operation of io.rainfall.ehcache2.operation next to the raw {@link Ehcache} call it wraps, on a
+ * heap cache holding all the keys. The difference between the two is the cost of the Rainfall wrapper : key
+ * and value generation, timing and recording. The recording is measured with the cost of a real run only with
+ * the "recording" statistics parameter.
+ * <p>
+ * The cache is filled again before every iteration. The remove benchmarks only remove present keys during the first
+ * pass over the keys of an iteration, afterwards they measure removes of absent keys, for both the raw call and the
+ * operation.
+ *
+ * @author Aurelien Broszniowski
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Ehcache2OperationsBenchmark {
+
+  private static final int ENTRIES = 1024;
+  private static final int VALUE_SIZE = 8;
+
+  /**
+   * "null" leaves the recording cost out of the operations, "recording" includes the one of a real run.
+   */
+  @Param({"null", "recording"})
+  private String statistics;
+
+  private StatisticsHolder<EhcacheResult> statisticsHolder;
+  private final Map<Class<? extends Configuration>, Configuration> configurations = Collections.emptyMap();
+  private final List<AssertionEvaluator> assertions = Collections.emptyList();
+
+  private CacheManager cacheManager;
+  private Ehcache cache;
+  private Long[] keys;
+  private Element[] elements;
+  private int index = 0;
+
+  private Operation get;
+  private Operation put;
+  private Operation putIfAbsent;
+  private Operation remove;
+
+  @Setup
+  public void setUp() {
+    statisticsHolder = "recording".equals(statistics)
+        ? new RecordingStatisticsHolder<EhcacheResult>(EhcacheResult.values())
+        : new NullStatisticsHolder<EhcacheResult>();
+    net.sf.ehcache.config.Configuration configuration = new net.sf.ehcache.config.Configuration()
+        .name("Ehcache2OperationsBenchmark")
+        .cache(new CacheConfiguration("one", ENTRIES * 2));
+    cacheManager = CacheManager.create(configuration);
+    cache = cacheManager.getEhcache("one");
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<byte[]> valueGenerator = fixedLengthByteArray(VALUE_SIZE);
+
+    keys = new Long[ENTRIES];
+    elements = new Element[ENTRIES];
+    for (int i = 0; i < ENTRIES; i++) {
+      keys[i] = keyGenerator.generate((long)i);
+      elements[i] = new Element(keys[i], valueGenerator.generate((long)i));
+    }
+
+    List<CacheDefinition> caches = singletonList(cache("one", cache));
+    get = Ehcache2Operations.get(keyGenerator, new CyclingSequenceGenerator(ENTRIES), caches);
+    put = Ehcache2Operations.put(keyGenerator, valueGenerator, new CyclingSequenceGenerator(ENTRIES), caches);
+    putIfAbsent = Ehcache2Operations.putIfAbsent(keyGenerator, valueGenerator, new CyclingSequenceGenerator(ENTRIES), caches);
+    remove = Ehcache2Operations.remove(keyGenerator, new CyclingSequenceGenerator(ENTRIES), caches);
+  }
+
+  @Setup(Level.Iteration)
+  public void fill() {
+    for (Element element : elements) {
+      cache.put(element);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    cacheManager.shutdown();
+  }
+
+  private int nextIndex() {
+    int current = index;
+    index = (current + 1 == ENTRIES) ? 0 : current + 1;
+    return current;
+  }
+
+  @Benchmark
+  public Element rawGet() {
+    return cache.get(keys[nextIndex()]);
+  }
+
+  @Benchmark
+  public void get() throws TestException {
+    get.exec(statisticsHolder, configurations, assertions);
+  }
+
+  @Benchmark
+  public void rawPut() {
+    cache.put(elements[nextIndex()]);
+  }
+
+  @Benchmark
+  public void put() throws TestException {
+    put.exec(statisticsHolder, configurations, assertions);
+  }
+
+  @Benchmark
+  public Element rawPutIfAbsent() {
+    return cache.putIfAbsent(elements[nextIndex()]);
+  }
+
+  @Benchmark
+  public void putIfAbsent() throws TestException {
+    putIfAbsent.exec(statisticsHolder, configurations, assertions);
+  }
+
+  @Benchmark
+  public boolean rawRemove() {
+    return cache.remove(keys[nextIndex()]);
+  }
+
+  @Benchmark
+  public void remove() throws TestException {
+    remove.exec(statisticsHolder, configurations, assertions);
+  }
+}
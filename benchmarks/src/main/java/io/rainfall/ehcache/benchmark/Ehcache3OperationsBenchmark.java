@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.benchmark;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.ObjectGenerator;
+import io.rainfall.Operation;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.ehcache3.CacheDefinition;
+import io.rainfall.ehcache3.Ehcache3Operations;
+import io.rainfall.generator.LongGenerator;
+import io.rainfall.statistics.StatisticsHolder;
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.units.EntryUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static io.rainfall.ehcache3.CacheDefinition.cache;
+import static io.rainfall.generator.ByteArrayGenerator.fixedLengthByteArray;
+import static java.util.Collections.singletonList;
+import static org.ehcache.config.builders.CacheManagerBuilder.newCacheManagerBuilder;
+import static org.ehcache.config.builders.ResourcePoolsBuilder.newResourcePoolsBuilder;
+
+/**
+ * Each Ehcache 3 operation of io.rainfall.ehcache3.operation next to the raw {@link Cache} call it wraps, on a
+ * heap cache holding all the keys. The difference between the two is the cost of the Rainfall wrapper : key
+ * and value generation, timing and recording. The recording is measured with the cost of a real run only with
+ * the "recording" statistics parameter.
+ * <p>
+ * The cache is filled again before every iteration. The remove benchmarks only remove present keys during the first
+ * pass over the keys of an iteration, afterwards they measure removes of absent keys, for both the raw call and the
+ * operation.
+ *
+ * @author Aurelien Broszniowski
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Ehcache3OperationsBenchmark {
+
+  private static final int ENTRIES = 1024;
+  private static final int VALUE_SIZE = 8;
+  private static final int BATCH_SIZE = 10;
+
+  /**
+   * "null" leaves the recording cost out of the operations, "recording" includes the one of a real run.
+   */
+  @Param({"null", "recording"})
+  private String statistics;
+
+  private StatisticsHolder<EhcacheResult> statisticsHolder;
+  private final Map<Class<? extends Configuration>, Configuration> configurations = Collections.emptyMap();
+  private final List<AssertionEvaluator> assertions = Collections.emptyList();
+
+  private CacheManager cacheManager;
+  private Cache<Long, byte[]> cache;
+  private Long[] keys;
+  private byte[][] values;
+  private List<Set<Long>> keySets;
+  private List<Map<Long, byte[]>> entrySets;
+  private int index = 0;
+
+  private Operation get;
+  private Operation put;
+  private Operation putVerified;
+  private Operation throttledGet;
+  private Operation throttledPut;
+  private Operation putIfAbsent;
+  private Operation replace;
+  private Operation replaceForKeyAndValue;
+  private Operation remove;
+  private Operation removeForKeyAndValue;
+  private Operation getAll;
+  private Operation putAll;
+  private Operation removeAll;
+
+  @Setup
+  public void setUp() {
+    statisticsHolder = "recording".equals(statistics)
+        ? new RecordingStatisticsHolder<EhcacheResult>(EhcacheResult.values())
+        : new NullStatisticsHolder<EhcacheResult>();
+    cacheManager = newCacheManagerBuilder()
+        .withCache("one", CacheConfigurationBuilder.newCacheConfigurationBuilder(Long.class, byte[].class,
+            newResourcePoolsBuilder().heap(ENTRIES * 2, EntryUnit.ENTRIES).build()).build())
+        .build(true);
+    cache = cacheManager.getCache("one", Long.class, byte[].class);
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<byte[]> valueGenerator = fixedLengthByteArray(VALUE_SIZE);
+
+    keys = new Long[ENTRIES];
+    values = new byte[ENTRIES][];
+    for (int i = 0; i < ENTRIES; i++) {
+      keys[i] = keyGenerator.generate((long)i);
+      values[i] = valueGenerator.generate((long)i);
+    }
+    keySets = new ArrayList<Set<Long>>();
+    entrySets = new ArrayList<Map<Long, byte[]>>();
+    for (int i = 0; i < ENTRIES; i += BATCH_SIZE) {
+      Set<Long> keySet = new HashSet<Long>();
+      Map<Long, byte[]> entrySet = new HashMap<Long, byte[]>();
+      for (int j = i; j < Math.min(i + BATCH_SIZE, ENTRIES); j++) {
+        keySet.add(keys[j]);
+        entrySet.put(keys[j], values[j]);
+      }
+      keySets.add(keySet);
+      entrySets.add(entrySet);
+    }
+
+    List<CacheDefinition<Long, byte[]>> caches = singletonList(cache("one", cache));
+    get = Ehcache3Operations.get(keyGenerator, new CyclingSequenceGenerator(ENTRIES), caches);
+    put = Ehcache3Operations.put(keyGenerator, valueGenerator, new CyclingSequenceGenerator(ENTRIES), caches);
+    putVerified = Ehcache3Operations.put(keyGenerator, valueGenerator, new CyclingSequenceGenerator(ENTRIES), true, caches);
+    throttledGet = Ehcache3Operations.get(keyGenerator, new CyclingSequenceGenerator(ENTRIES), caches, Integer.MAX_VALUE);
+    throttledPut = Ehcache3Operations.put(keyGenerator, valueGenerator, new CyclingSequenceGenerator(ENTRIES), Integer.MAX_VALUE, caches);
+    putIfAbsent = Ehcache3Operations.putIfAbsent(keyGenerator, valueGenerator, new CyclingSequenceGenerator(ENTRIES), caches);
+    replace = Ehcache3Operations.replace(keyGenerator, valueGenerator, new CyclingSequenceGenerator(ENTRIES), caches);
+    replaceForKeyAndValue = Ehcache3Operations.replaceForKeyAndValue(keyGenerator, valueGenerator, new CyclingSequenceGenerator(ENTRIES), caches);
+    remove = Ehcache3Operations.remove(keyGenerator, new CyclingSequenceGenerator(ENTRIES), caches);
+    removeForKeyAndValue = Ehcache3Operations.removeForKeyAndValue(keyGenerator, valueGenerator, new CyclingSequenceGenerator(ENTRIES), caches);
+    getAll = Ehcache3Operations.getAll(keyGenerator, new CyclingSequenceGenerator(ENTRIES), BATCH_SIZE, caches);
+    putAll = Ehcache3Operations.putAll(keyGenerator, valueGenerator, new CyclingSequenceGenerator(ENTRIES), BATCH_SIZE, caches);
+    removeAll = Ehcache3Operations.removeAll(keyGenerator, new CyclingSequenceGenerator(ENTRIES), BATCH_SIZE, caches);
+  }
+
+  @Setup(Level.Iteration)
+  public void fill() {
+    for (int i = 0; i < ENTRIES; i++) {
+      cache.put(keys[i], values[i]);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    cacheManager.close();
+  }
+
+  private int nextIndex() {
+    int current = index;
+    index = (current + 1 == ENTRIES) ? 0 : current + 1;
+    return current;
+  }
+
+  @Benchmark
+  public byte[] rawGet() {
+    return cache.get(keys[nextIndex()]);
+  }
+
+  @Benchmark
+  public void get() throws TestException {
+    get.exec(statisticsHolder, configurations, assertions);
+  }
+
+  @Benchmark
+  public void throttledGet() throws TestException {
+    throttledGet.exec(statisticsHolder, configurations, assertions);
+  }
+
+  @Benchmark
+  public void rawPut() {
+    int i = nextIndex();
+    cache.put(keys[i], values[i]);
+  }
+
+  @Benchmark
+  public void put() throws TestException {
+    put.exec(statisticsHolder, configurations, assertions);
+  }
+
+  @Benchmark
+  public void putVerified() throws TestException {
+    putVerified.exec(statisticsHolder, configurations, assertions);
+  }
+
+  @Benchmark
+  public void throttledPut() throws TestException {
+    throttledPut.exec(statisticsHolder, configurations, assertions);
+  }
+
+  @Benchmark
+  public byte[] rawPutIfAbsent() {
+    int i = nextIndex();
+    return cache.putIfAbsent(keys[i], values[i]);
+  }
+
+  @Benchmark
+  public void putIfAbsent() throws TestException {
+    putIfAbsent.exec(statisticsHolder, configurations, assertions);
+  }
+
+  @Benchmark
+  public byte[] rawReplace() {
+    int i = nextIndex();
+    return cache.replace(keys[i], values[i]);
+  }
+
+  @Benchmark
+  public void replace() throws TestException {
+    replace.exec(statisticsHolder, configurations, assertions);
+  }
+
+  @Benchmark
+  public boolean rawReplaceForKeyAndValue() {
+    int i = nextIndex();
+    return cache.replace(keys[i], values[i], values[i]);
+  }
+
+  @Benchmark
+  public void replaceForKeyAndValue() throws TestException {
+    replaceForKeyAndValue.exec(statisticsHolder, configurations, assertions);
+  }
+
+  @Benchmark
+  public void rawRemove() {
+    cache.remove(keys[nextIndex()]);
+  }
+
+  @Benchmark
+  public void remove() throws TestException {
+    remove.exec(statisticsHolder, configurations, assertions);
+  }
+
+  @Benchmark
+  public boolean rawRemoveForKeyAndValue() {
+    int i = nextIndex();
+    return cache.remove(keys[i], values[i]);
+  }
+
+  @Benchmark
+  public void removeForKeyAndValue() throws TestException {
+    removeForKeyAndValue.exec(statisticsHolder, configurations, assertions);
+  }
+
+  @Benchmark
+  public Map<Long, byte[]> rawGetAll() {
+    return cache.getAll(keySets.get(nextIndex() % keySets.size()));
+  }
+
+  @Benchmark
+  public void getAll() throws TestException {
+    getAll.exec(statisticsHolder, configurations, assertions);
+  }
+
+  @Benchmark
+  public void rawPutAll() {
+    cache.putAll(entrySets.get(nextIndex() % entrySets.size()));
+  }
+
+  @Benchmark
+  public void putAll() throws TestException {
+    putAll.exec(statisticsHolder, configurations, assertions);
+  }
+
+  @Benchmark
+  public void rawRemoveAll() {
+    cache.removeAll(keySets.get(nextIndex() % keySets.size()));
+  }
+
+  @Benchmark
+  public void removeAll() throws TestException {
+    removeAll.exec(statisticsHolder, configurations, assertions);
+  }
+}
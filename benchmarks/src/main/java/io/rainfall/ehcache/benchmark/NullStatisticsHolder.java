@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.benchmark;
+
+import io.rainfall.statistics.StatisticsHolder;
+import org.HdrHistogram.Histogram;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * {@link StatisticsHolder} that only keeps the last recorded latency, so that the benchmarks measure the cost
+ * of the operations of this module and not the cost of the reporting of rainfall-core.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class NullStatisticsHolder<E extends Enum<E>> implements StatisticsHolder<E> {
+
+  private long lastLatency;
+  private long assertionErrors;
+
+  @Override
+  public Enum<E>[] getResultsReported() {
+    return null;
+  }
+
+  @Override
+  public Set<String> getStatisticsKeys() {
+    return Collections.emptySet();
+  }
+
+  @Override
+  public Histogram fetchHistogram(final Enum<E> result) {
+    return null;
+  }
+
+  @Override
+  public void reset() {
+    lastLatency = 0;
+    assertionErrors = 0;
+  }
+
+  @Override
+  public long getCurrentTps(final Enum result) {
+    return 0;
+  }
+
+  @Override
+  public void record(final String name, final long responseTimeInNs, final Enum result) {
+    lastLatency = responseTimeInNs;
+  }
+
+  @Override
+  public void increaseAssertionsErrorsCount(final String name) {
+    assertionErrors++;
+  }
+
+  @Override
+  public long getTimeInNs() {
+    return System.nanoTime();
+  }
+
+  public long getLastLatency() {
+    return lastLatency;
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.benchmark;
+
+import io.rainfall.statistics.StatisticsHolder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link StatisticsHolder} doing the same work per record as the runtime holder of rainfall-core : a lookup of
+ * the statistics of the name, then a counter, a latency sum and a concurrent histogram updated for the result.
+ * Benchmarks run with it measure the operations with the recording cost a real run pays, where
+ * {@link NullStatisticsHolder} leaves that cost out.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class RecordingStatisticsHolder<E extends Enum<E>> implements StatisticsHolder<E> {
+
+  private static final long HIGHEST_TRACKABLE_VALUE = TimeUnit.MINUTES.toNanos(1);
+
+  private final Enum<E>[] results;
+  private final ConcurrentMap<String, Statistics> statistics = new ConcurrentHashMap<String, Statistics>();
+  private final LongAdder assertionErrors = new LongAdder();
+
+  public RecordingStatisticsHolder(final Enum<E>[] results) {
+    this.results = results;
+  }
+
+  @Override
+  public Enum<E>[] getResultsReported() {
+    return results;
+  }
+
+  @Override
+  public Set<String> getStatisticsKeys() {
+    return statistics.keySet();
+  }
+
+  @Override
+  public Histogram fetchHistogram(final Enum<E> result) {
+    Histogram histogram = new Histogram(HIGHEST_TRACKABLE_VALUE, 3);
+    for (Statistics stats : statistics.values()) {
+      histogram.add(stats.histograms[result.ordinal()]);
+    }
+    return histogram;
+  }
+
+  @Override
+  public void reset() {
+    statistics.clear();
+    assertionErrors.reset();
+  }
+
+  @Override
+  public long getCurrentTps(final Enum result) {
+    return 0;
+  }
+
+  @Override
+  public void record(final String name, final long responseTimeInNs, final Enum result) {
+    Statistics stats = statistics.get(name);
+    if (stats == null) {
+      stats = statistics.computeIfAbsent(name, key -> new Statistics(results.length));
+    }
+    int ordinal = result.ordinal();
+    stats.counters[ordinal].increment();
+    stats.latencies[ordinal].add(responseTimeInNs);
+    stats.histograms[ordinal].recordValue(Math.min(responseTimeInNs, HIGHEST_TRACKABLE_VALUE));
+  }
+
+  @Override
+  public void increaseAssertionsErrorsCount(final String name) {
+    assertionErrors.increment();
+  }
+
+  @Override
+  public long getTimeInNs() {
+    return System.nanoTime();
+  }
+
+  private static class Statistics {
+
+    private final LongAdder[] counters;
+    private final LongAdder[] latencies;
+    private final ConcurrentHistogram[] histograms;
+
+    Statistics(final int size) {
+      counters = new LongAdder[size];
+      latencies = new LongAdder[size];
+      histograms = new ConcurrentHistogram[size];
+      for (int i = 0; i < size; i++) {
+        counters[i] = new LongAdder();
+        latencies[i] = new LongAdder();
+        histograms[i] = new ConcurrentHistogram(HIGHEST_TRACKABLE_VALUE, 3);
+      }
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.execution;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.Execution;
+import io.rainfall.Scenario;
+import io.rainfall.TestException;
+import io.rainfall.configuration.ConcurrencyConfig;
+import io.rainfall.statistics.StatisticsHolder;
+import io.rainfall.unit.TimeDivision;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Open-loop execution : operations are issued at a constant arrival rate, spread over all the threads of all
+ * the pools, whatever the latency of the caches is.
+ * <p>
+ * Each operation is timed from the moment it was scheduled to start (see {@link ScheduledStart}), so a cache
+ * stall shows up as queueing delay in the latencies of all the operations that were due during the stall,
+ * instead of silently slowing down the load generator (Coordinated Omission).
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ConstantArrivalRate extends Execution {
+
+  private final long opsPerSecond;
+  private final long durationInNs;
+
+  public ConstantArrivalRate(final long opsPerSecond, final long duration, final TimeUnit timeUnit) {
+    if (opsPerSecond <= 0) {
+      throw new IllegalArgumentException("Arrival rate must be strictly positive");
+    }
+    this.opsPerSecond = opsPerSecond;
+    this.durationInNs = timeUnit.toNanos(duration);
+  }
+
+  public static ConstantArrivalRate constantArrivalRate(final long opsPerSecond, final int duration, final TimeDivision timeDivision) {
+    return new ConstantArrivalRate(opsPerSecond, duration, timeDivision.getTimeUnit());
+  }
+
+  @Override
+  public <E extends Enum<E>> void execute(final StatisticsHolder<E> statisticsHolder, final Scenario scenario, final Map<Class<? extends Configuration>, Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    ConcurrencyConfig concurrencyConfig = (ConcurrencyConfig)configurations.get(ConcurrencyConfig.class);
+
+    markExecutionState(scenario, ExecutionState.BEGINNING);
+
+    final Map<String, ExecutorService> executors = concurrencyConfig.createFixedExecutorService();
+    int totalThreadCount = 0;
+    for (final String threadpoolName : executors.keySet()) {
+      totalThreadCount += concurrencyConfig.getThreadCount(threadpoolName);
+    }
+
+    // every thread gets the same share of the rate, threads are staggered so that arrivals don't come in bursts
+    final double intervalInNs = (double)SECONDS.toNanos(1) * totalThreadCount / opsPerSecond;
+    final double staggerInNs = intervalInNs / totalThreadCount;
+    final long startTime = statisticsHolder.getTimeInNs();
+    final long endTime = startTime + durationInNs;
+
+    OperationThreads.submit(executors, concurrencyConfig, scenario, (threadIndex, operations) -> {
+      final long firstStart = startTime + (long)(threadIndex * staggerInNs);
+      try {
+        long iteration = 0;
+        long scheduledStart = firstStart;
+        while (scheduledStart < endTime) {
+          long now = statisticsHolder.getTimeInNs();
+          if (now < scheduledStart) {
+            LockSupport.parkNanos(scheduledStart - now);
+            continue;
+          }
+          ScheduledStart.setLagInNs(now - scheduledStart);
+          operations.getNextRandom(weightRnd)
+              .getOperation().exec(statisticsHolder, configurations, assertions);
+          scheduledStart = firstStart + (long)(++iteration * intervalInNs);
+        }
+      } finally {
+        ScheduledStart.clear();
+      }
+    });
+
+    markExecutionState(scenario, ExecutionState.ENDING);
+    OperationThreads.awaitTermination(executors, durationInNs + SECONDS.toNanos(60));
+  }
+
+  @Override
+  public String toString() {
+    return "Execution : " + opsPerSecond + " operations/s during " + NANOSECONDS.toSeconds(durationInNs) + " seconds";
+  }
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.execution;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.Execution;
+import io.rainfall.Scenario;
+import io.rainfall.TestException;
+import io.rainfall.configuration.ConcurrencyConfig;
+import io.rainfall.statistics.StatisticsHolder;
+import io.rainfall.unit.TimeDivision;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
+import static io.rainfall.ehcache.statistics.EhcacheResult.LOAD;
+import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
+import static io.rainfall.ehcache.statistics.EhcacheResult.MISS_ABSENT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.MISS_EXPIRED;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Sweeps the capacity of the caches : for each capacity, the caches are rebuilt by the {@link Sizing}, the scenario
+ * runs for the warmup duration to reach steady state, then for the measured duration.
+ * <p>
+ * For each capacity, the hit ratio of each cache, the throughput and the 99th percentile of the operations latency
+ * are logged and written to miss-ratio-curve.csv. The hit ratio counts the gets recorded by the operations while the
+ * curve runs : a get served by a loader counts as a miss. All results are also recorded as usual, for all capacities
+ * together.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class MissRatioCurve extends Execution {
+
+  private static final Logger log = LoggerFactory.getLogger(MissRatioCurve.class);
+
+  /**
+   * Rebuilds the caches of the scenario with a given capacity, e.g. with
+   * {@link io.rainfall.ehcache3.CacheDefinition#replaceCache(org.ehcache.Cache)}.
+   */
+  public interface Sizing {
+    void sizeTo(long capacity) throws Exception;
+  }
+
+  private final Sizing sizing;
+  private final long[] capacities;
+  private final List<String> cacheNames = new ArrayList<String>();
+  private long warmupInNs = SECONDS.toNanos(30);
+  private long measuredInNs = SECONDS.toNanos(60);
+  private File reportDirectory = new File(".");
+
+  public MissRatioCurve(final Sizing sizing, final long... capacities) {
+    if (capacities.length == 0) {
+      throw new IllegalArgumentException("At least one capacity must be given");
+    }
+    this.sizing = sizing;
+    this.capacities = capacities.clone();
+  }
+
+  public static MissRatioCurve missRatioCurve(final Sizing sizing, final long... capacities) {
+    return new MissRatioCurve(sizing, capacities);
+  }
+
+  /**
+   * Caches whose hit ratio is reported, by the names of their cache definitions.
+   */
+  public MissRatioCurve of(final String... cacheNames) {
+    this.cacheNames.addAll(Arrays.asList(cacheNames));
+    return this;
+  }
+
+  public MissRatioCurve warmup(final int duration, final TimeDivision timeDivision) {
+    this.warmupInNs = timeDivision.getTimeUnit().toNanos(duration);
+    return this;
+  }
+
+  public MissRatioCurve measured(final int duration, final TimeDivision timeDivision) {
+    this.measuredInNs = timeDivision.getTimeUnit().toNanos(duration);
+    return this;
+  }
+
+  public MissRatioCurve reportTo(final File reportDirectory) {
+    this.reportDirectory = reportDirectory;
+    return this;
+  }
+
+  @Override
+  public <E extends Enum<E>> void execute(final StatisticsHolder<E> statisticsHolder, final Scenario scenario, final Map<Class<? extends Configuration>, Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    ConcurrencyConfig concurrencyConfig = (ConcurrencyConfig)configurations.get(ConcurrencyConfig.class);
+
+    markExecutionState(scenario, ExecutionState.BEGINNING);
+
+    HitCountingStatisticsHolder<E> countingHolder = new HitCountingStatisticsHolder<E>(statisticsHolder, cacheNames);
+    reportDirectory.mkdirs();
+    try (PrintWriter out = new PrintWriter(new FileWriter(new File(reportDirectory, "miss-ratio-curve.csv")))) {
+      StringBuilder header = new StringBuilder("capacity,ops/s,p99 (us)");
+      for (String cacheName : cacheNames) {
+        header.append(',').append(cacheName).append(" hit ratio");
+      }
+      out.println(header);
+
+      for (long capacity : capacities) {
+        try {
+          sizing.sizeTo(capacity);
+        } catch (Exception e) {
+          throw new TestException("Can not size the caches to " + capacity, e);
+        }
+
+        run(countingHolder, scenario, configurations, assertions, concurrencyConfig, warmupInNs, null);
+
+        long[][] before = countingHolder.counts();
+        List<Histogram> histograms = new ArrayList<Histogram>();
+        run(countingHolder, scenario, configurations, assertions, concurrencyConfig, measuredInNs, histograms);
+        long[][] after = countingHolder.counts();
+
+        Histogram latencies = new Histogram(3);
+        for (Histogram histogram : histograms) {
+          latencies.add(histogram);
+        }
+        double opsPerSecond = latencies.getTotalCount() * (double)SECONDS.toNanos(1) / measuredInNs;
+        double p99InUs = latencies.getValueAtPercentile(99) / 1000.0;
+
+        StringBuilder row = new StringBuilder(String.format(Locale.ROOT, "%d,%.1f,%.1f", capacity, opsPerSecond, p99InUs));
+        for (int i = 0; i < cacheNames.size(); i++) {
+          long hits = after[i][0] - before[i][0];
+          long misses = after[i][1] - before[i][1];
+          double hitRatio = hits + misses == 0 ? 0 : (double)hits / (hits + misses);
+          row.append(String.format(Locale.ROOT, ",%.4f", hitRatio));
+          log.info("Capacity {} : cache {} hit ratio {}", capacity, cacheNames.get(i),
+              String.format(Locale.ROOT, "%.4f", hitRatio));
+        }
+        log.info("Capacity {} : {} ops/s, p99 {} us", capacity, String.format(Locale.ROOT, "%.1f", opsPerSecond),
+            String.format(Locale.ROOT, "%.1f", p99InUs));
+        out.println(row);
+        out.flush();
+      }
+    } catch (IOException e) {
+      throw new TestException("Can not write the miss ratio curve", e);
+    }
+
+    markExecutionState(scenario, ExecutionState.ENDING);
+  }
+
+  /**
+   * Runs the scenario on all the threads for the given duration.
+   *
+   * @param histograms if not null, every thread times its operations and adds its histogram to the list
+   */
+  private void run(final StatisticsHolder statisticsHolder, final Scenario scenario,
+                   final Map<Class<? extends Configuration>, Configuration> configurations,
+                   final List<AssertionEvaluator> assertions, final ConcurrencyConfig concurrencyConfig,
+                   final long durationInNs, final List<Histogram> histograms) throws TestException {
+    final Map<String, ExecutorService> executors = concurrencyConfig.createFixedExecutorService();
+    final long endTime = statisticsHolder.getTimeInNs() + durationInNs;
+
+    OperationThreads.submit(executors, concurrencyConfig, scenario, (threadIndex, operations) -> {
+      Histogram histogram = histograms == null ? null : new Histogram(3);
+
+      long now = statisticsHolder.getTimeInNs();
+      while (now < endTime) {
+        operations.getNextRandom(weightRnd)
+            .getOperation().exec(statisticsHolder, configurations, assertions);
+        long end = statisticsHolder.getTimeInNs();
+        if (histogram != null) {
+          histogram.recordValue(end - now);
+        }
+        now = end;
+      }
+      if (histogram != null) {
+        synchronized (histograms) {
+          histograms.add(histogram);
+        }
+      }
+    });
+
+    OperationThreads.awaitTermination(executors, durationInNs + SECONDS.toNanos(60));
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("Execution : miss ratio curve over capacities");
+    for (long capacity : capacities) {
+      sb.append(' ').append(capacity);
+    }
+    return sb.append(", ").append(NANOSECONDS.toSeconds(warmupInNs)).append(" seconds of warmup and ")
+        .append(NANOSECONDS.toSeconds(measuredInNs)).append(" seconds measured per capacity").toString();
+  }
+
+  /**
+   * Statistics holder given to the operations while the curve runs, counting the hits and misses of the reported
+   * caches on their way to the statistics holder of the run.
+   */
+  private static final class HitCountingStatisticsHolder<E extends Enum<E>> implements StatisticsHolder<E> {
+
+    private final StatisticsHolder<E> delegate;
+    private final List<String> cacheNames;
+    private final Map<String, LongAdder[]> counts = new HashMap<String, LongAdder[]>();
+
+    HitCountingStatisticsHolder(final StatisticsHolder<E> delegate, final List<String> cacheNames) {
+      this.delegate = delegate;
+      this.cacheNames = cacheNames;
+      for (String cacheName : cacheNames) {
+        counts.put(cacheName, new LongAdder[] { new LongAdder(), new LongAdder() });
+      }
+    }
+
+    /**
+     * @return per reported cache, the count of hits and the count of misses so far
+     */
+    long[][] counts() {
+      long[][] snapshot = new long[cacheNames.size()][2];
+      for (int i = 0; i < cacheNames.size(); i++) {
+        LongAdder[] cacheCounts = counts.get(cacheNames.get(i));
+        snapshot[i][0] = cacheCounts[0].sum();
+        snapshot[i][1] = cacheCounts[1].sum();
+      }
+      return snapshot;
+    }
+
+    @Override
+    public void record(final String name, final long responseTimeInNs, final Enum result) {
+      delegate.record(name, responseTimeInNs, result);
+      LongAdder[] cacheCounts = counts.get(name);
+      if (cacheCounts != null) {
+        if (result == GET) {
+          cacheCounts[0].increment();
+        } else if (result == MISS || result == MISS_EXPIRED || result == MISS_ABSENT || result == LOAD) {
+          cacheCounts[1].increment();
+        }
+      }
+    }
+
+    @Override
+    public Enum<E>[] getResultsReported() {
+      return delegate.getResultsReported();
+    }
+
+    @Override
+    public Set<String> getStatisticsKeys() {
+      return delegate.getStatisticsKeys();
+    }
+
+    @Override
+    public Histogram fetchHistogram(final Enum<E> result) {
+      return delegate.fetchHistogram(result);
+    }
+
+    @Override
+    public void reset() {
+      delegate.reset();
+    }
+
+    @Override
+    public long getCurrentTps(final Enum result) {
+      return delegate.getCurrentTps(result);
+    }
+
+    @Override
+    public void increaseAssertionsErrorsCount(final String name) {
+      delegate.increaseAssertionsErrorsCount(name);
+    }
+
+    @Override
+    public long getTimeInNs() {
+      return delegate.getTimeInNs();
+    }
+  }
+}
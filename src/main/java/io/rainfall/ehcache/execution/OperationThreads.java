@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.execution;
+
+import io.rainfall.Scenario;
+import io.rainfall.TestException;
+import io.rainfall.WeightedOperation;
+import io.rainfall.configuration.ConcurrencyConfig;
+import io.rainfall.utils.RangeMap;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Operation threads of the executions : one task per thread of each pool of the {@link ConcurrencyConfig}, running
+ * the operations of the pool until the execution says otherwise.
+ *
+ * @author Aurelien Broszniowski
+ */
+public final class OperationThreads {
+
+  /**
+   * Loop of one operation thread.
+   */
+  public interface Body {
+    /**
+     * @param threadIndex index of the thread among the threads of all the pools
+     * @param operations  operations of the pool of the thread
+     */
+    void run(int threadIndex, RangeMap<WeightedOperation> operations) throws Exception;
+  }
+
+  private OperationThreads() {
+  }
+
+  /**
+   * Submits the body once per thread of each pool, on the executors created from the {@link ConcurrencyConfig}.
+   */
+  public static void submit(final Map<String, ExecutorService> executors, final ConcurrencyConfig concurrencyConfig,
+                            final Scenario scenario, final Body body) {
+    int threadIndex = 0;
+    for (final String threadpoolName : executors.keySet()) {
+      final int threadCount = concurrencyConfig.getThreadCount(threadpoolName);
+      final ExecutorService executor = executors.get(threadpoolName);
+
+      for (int threadNb = 0; threadNb < threadCount; threadNb++) {
+        final int finalThreadNb = threadNb;
+        final int finalThreadIndex = threadIndex++;
+        executor.submit((Callable)() -> {
+          Thread.currentThread().setName("Rainfall-core Operations Thread - " + finalThreadNb);
+          body.run(finalThreadIndex, scenario.getOperations().get(threadpoolName));
+          return null;
+        });
+      }
+    }
+  }
+
+  /**
+   * Shuts the executors down and waits for the operation threads to finish, then interrupts them.
+   *
+   * @param timeoutInNs time given to the threads to finish before being interrupted
+   */
+  public static void awaitTermination(final Map<String, ExecutorService> executors, final long timeoutInNs) throws TestException {
+    for (ExecutorService executor : executors.values()) {
+      executor.shutdown();
+    }
+    try {
+      boolean success = true;
+      for (ExecutorService executor : executors.values()) {
+        boolean executorSuccess = executor.awaitTermination(timeoutInNs, NANOSECONDS);
+        if (!executorSuccess) {
+          executor.shutdownNow();
+          success &= executor.awaitTermination(60, SECONDS);
+        }
+      }
+
+      if (!success) {
+        throw new TestException("Execution of Scenario timed out.");
+      }
+    } catch (InterruptedException e) {
+      throw new TestException("Execution of Scenario didn't stop correctly.", e);
+    }
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.execution;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.Execution;
+import io.rainfall.Scenario;
+import io.rainfall.TestException;
+import io.rainfall.configuration.ConcurrencyConfig;
+import io.rainfall.statistics.StatisticsHolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Prefills the caches with the keys of a range of seeds : the range is split into one contiguous partition per
+ * thread, each thread loads its partition by batches of distinct keys with a {@link Loader}, and the execution
+ * stops when the whole range is loaded.
+ * <p>
+ * The operations of the scenario are not executed. The load throughput, in entries/s and MB/s, is logged
+ * periodically and at the end.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class PartitionedPrefill extends Execution {
+
+  private static final Logger log = LoggerFactory.getLogger(PartitionedPrefill.class);
+
+  private static final long PROGRESS_PERIOD_IN_NS = SECONDS.toNanos(10);
+
+  /**
+   * Loads batches of keys into the caches, e.g. with putAll.
+   */
+  public interface Loader {
+
+    /**
+     * Loads the keys of the seeds from first (included) to first + count (excluded) and records the result.
+     *
+     * @return number of bytes loaded, counting the byte array and string keys and values only
+     */
+    long load(StatisticsHolder statisticsHolder, long first, int count) throws TestException;
+
+    String getDescription();
+  }
+
+  private final Loader loader;
+  private final long from;
+  private final long to;
+  private final int batchSize;
+  private final LongAdder entries = new LongAdder();
+  private final LongAdder bytes = new LongAdder();
+  private volatile double entriesPerSecond;
+  private volatile double megabytesPerSecond;
+
+  public PartitionedPrefill(final Loader loader, final long from, final long to, final int batchSize) {
+    if (to <= from) {
+      throw new IllegalArgumentException("Range of seeds to prefill is empty");
+    }
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size must be strictly positive");
+    }
+    this.loader = loader;
+    this.from = from;
+    this.to = to;
+    this.batchSize = batchSize;
+  }
+
+  public static PartitionedPrefill prefill(final Loader loader, final long keyCount, final int batchSize) {
+    return new PartitionedPrefill(loader, 0, keyCount, batchSize);
+  }
+
+  public static PartitionedPrefill prefill(final Loader loader, final long from, final long to, final int batchSize) {
+    return new PartitionedPrefill(loader, from, to, batchSize);
+  }
+
+  @Override
+  public <E extends Enum<E>> void execute(final StatisticsHolder<E> statisticsHolder, final Scenario scenario, final Map<Class<? extends Configuration>, Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    ConcurrencyConfig concurrencyConfig = (ConcurrencyConfig)configurations.get(ConcurrencyConfig.class);
+
+    markExecutionState(scenario, ExecutionState.BEGINNING);
+
+    final Map<String, ExecutorService> executors = concurrencyConfig.createFixedExecutorService();
+    int totalThreadCount = 0;
+    for (final String threadpoolName : executors.keySet()) {
+      totalThreadCount += concurrencyConfig.getThreadCount(threadpoolName);
+    }
+
+    final long partitionSize = (to - from + totalThreadCount - 1) / totalThreadCount;
+    final long startTime = statisticsHolder.getTimeInNs();
+    List<Future<?>> partitions = new ArrayList<Future<?>>();
+
+    long partitionStart = from;
+    for (final String threadpoolName : executors.keySet()) {
+      final int threadCount = concurrencyConfig.getThreadCount(threadpoolName);
+      final ExecutorService executor = executors.get(threadpoolName);
+
+      for (int threadNb = 0; threadNb < threadCount; threadNb++) {
+        final int finalThreadNb = threadNb;
+        final long first = partitionStart;
+        final long last = Math.min(to, partitionStart + partitionSize);
+        partitionStart = last;
+        partitions.add(executor.submit(() -> {
+          Thread.currentThread().setName("Rainfall-core Operations Thread - " + finalThreadNb);
+          for (long seed = first; seed < last; seed += batchSize) {
+            int count = (int)Math.min(batchSize, last - seed);
+            bytes.add(loader.load(statisticsHolder, seed, count));
+            entries.add(count);
+          }
+          return null;
+        }));
+      }
+    }
+
+    for (ExecutorService executor : executors.values()) {
+      executor.shutdown();
+    }
+    try {
+      for (ExecutorService executor : executors.values()) {
+        while (!executor.awaitTermination(PROGRESS_PERIOD_IN_NS, NANOSECONDS)) {
+          logThroughput("Prefill in progress", statisticsHolder.getTimeInNs() - startTime);
+        }
+      }
+      for (Future<?> partition : partitions) {
+        partition.get();
+      }
+    } catch (InterruptedException e) {
+      throw new TestException("Execution of Scenario didn't stop correctly.", e);
+    } catch (ExecutionException e) {
+      throw new TestException("Prefill failed.", e.getCause());
+    }
+
+    long elapsedInNs = statisticsHolder.getTimeInNs() - startTime;
+    entriesPerSecond = entries.sum() * (double)SECONDS.toNanos(1) / elapsedInNs;
+    megabytesPerSecond = bytes.sum() * (double)SECONDS.toNanos(1) / elapsedInNs / (1024 * 1024);
+    logThroughput("Prefill done", elapsedInNs);
+
+    markExecutionState(scenario, ExecutionState.ENDING);
+  }
+
+  private void logThroughput(final String message, final long elapsedInNs) {
+    double seconds = (double)elapsedInNs / SECONDS.toNanos(1);
+    log.info("{} : {} of {} entries, {} entries/s, {} MB/s", message, entries.sum(), to - from,
+        String.format(Locale.ROOT, "%.1f", entries.sum() / seconds),
+        String.format(Locale.ROOT, "%.1f", bytes.sum() / seconds / (1024 * 1024)));
+  }
+
+  public double getEntriesPerSecond() {
+    return entriesPerSecond;
+  }
+
+  public double getMegabytesPerSecond() {
+    return megabytesPerSecond;
+  }
+
+  @Override
+  public String toString() {
+    return "Execution : prefill of the seeds [" + from + ", " + to + ") by batches of " + batchSize + " with " + loader.getDescription();
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.execution;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.Execution;
+import io.rainfall.Scenario;
+import io.rainfall.TestException;
+import io.rainfall.statistics.StatisticsHolder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs samplers alongside an execution : they are started right before it and stopped right after it, so that
+ * they sample that run only and leave no thread or file open behind it.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class Sampled extends Execution {
+
+  /**
+   * Background sampler, e.g. {@link io.rainfall.ehcache3.statistics.TierHits}.
+   */
+  public interface Sampler {
+    void start();
+
+    void stop();
+  }
+
+  private final Execution execution;
+  private final List<Sampler> samplers;
+
+  public Sampled(final Execution execution, final Sampler... samplers) {
+    if (samplers.length == 0) {
+      throw new IllegalArgumentException("At least one sampler must be given");
+    }
+    this.execution = execution;
+    this.samplers = Arrays.asList(samplers.clone());
+  }
+
+  public static Sampled sampled(final Execution execution, final Sampler... samplers) {
+    return new Sampled(execution, samplers);
+  }
+
+  @Override
+  public <E extends Enum<E>> void execute(final StatisticsHolder<E> statisticsHolder, final Scenario scenario, final Map<Class<? extends Configuration>, Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+    int started = 0;
+    try {
+      for (Sampler sampler : samplers) {
+        sampler.start();
+        started++;
+      }
+      execution.execute(statisticsHolder, scenario, configurations, assertions);
+    } finally {
+      for (int i = started - 1; i >= 0; i--) {
+        samplers.get(i).stop();
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return execution + " (sampled)";
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.execution;
+
+import io.rainfall.statistics.StatisticsHolder;
+
+/**
+ * Gives the operations the time at which they were scheduled to start.
+ * <p>
+ * Closed-loop executions never set a lag, so the scheduled start is the current time. An open-loop execution
+ * (see {@link ConstantArrivalRate}) sets, before each operation, how late the operation is compared to its
+ * schedule, so that the measured latency includes the time spent waiting behind a slow operation.
+ *
+ * @author Aurelien Broszniowski
+ */
+public final class ScheduledStart {
+
+  private static final ThreadLocal<long[]> LAG = ThreadLocal.withInitial(() -> new long[1]);
+
+  private ScheduledStart() {
+  }
+
+  public static long getTimeInNs(final StatisticsHolder statisticsHolder) {
+    return statisticsHolder.getTimeInNs() - LAG.get()[0];
+  }
+
+  static void setLagInNs(final long lagInNs) {
+    LAG.get()[0] = lagInNs;
+  }
+
+  static void clear() {
+    LAG.remove();
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.execution;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.Execution;
+import io.rainfall.Scenario;
+import io.rainfall.TestException;
+import io.rainfall.WeightedOperation;
+import io.rainfall.configuration.ConcurrencyConfig;
+import io.rainfall.statistics.StatisticsHolder;
+import io.rainfall.unit.TimeDivision;
+import io.rainfall.utils.RangeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Runs a large number of clients per thread pool during a given time, each client executing the operations in a
+ * loop, on virtual threads when the JVM has them (see {@link VirtualThreads}).
+ * <p>
+ * The thread count of each pool in the {@link ConcurrencyConfig} is the number of carrier threads of that pool,
+ * the clients of a pool only run on its carriers. At the end of the run, the CPU utilization of the carriers of
+ * each pool is logged, and available from {@link #getCarrierUtilization()} : a pool whose carriers are saturated
+ * is measuring its own queueing, not the cache.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class VirtualClients extends Execution {
+
+  private static final Logger log = LoggerFactory.getLogger(VirtualClients.class);
+
+  private final int clientsPerPool;
+  private final long durationInNs;
+  private final Map<String, Double> carrierUtilization = new LinkedHashMap<String, Double>();
+
+  public VirtualClients(final int clientsPerPool, final long duration, final TimeUnit timeUnit) {
+    if (clientsPerPool <= 0) {
+      throw new IllegalArgumentException("Number of clients must be strictly positive");
+    }
+    this.clientsPerPool = clientsPerPool;
+    this.durationInNs = timeUnit.toNanos(duration);
+  }
+
+  public static VirtualClients virtualClients(final int clientsPerPool, final int duration, final TimeDivision timeDivision) {
+    return new VirtualClients(clientsPerPool, duration, timeDivision.getTimeUnit());
+  }
+
+  @Override
+  public <E extends Enum<E>> void execute(final StatisticsHolder<E> statisticsHolder, final Scenario scenario, final Map<Class<? extends Configuration>, Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    ConcurrencyConfig concurrencyConfig = (ConcurrencyConfig)configurations.get(ConcurrencyConfig.class);
+
+    markExecutionState(scenario, ExecutionState.BEGINNING);
+
+    // only the pool names and sizes are used, the fixed thread pools never start a thread
+    final Map<String, ExecutorService> executors = concurrencyConfig.createFixedExecutorService();
+    for (ExecutorService executor : executors.values()) {
+      executor.shutdown();
+    }
+
+    final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    final CountDownLatch done = new CountDownLatch(executors.size() * clientsPerPool);
+    final Map<String, ForkJoinPool> carrierPools = new LinkedHashMap<String, ForkJoinPool>();
+    final Map<String, List<Carrier>> carrierThreads = new LinkedHashMap<String, List<Carrier>>();
+    final long startTime = statisticsHolder.getTimeInNs();
+    final long endTime = startTime + durationInNs;
+
+    for (final String threadpoolName : executors.keySet()) {
+      final List<Carrier> carriers = new CopyOnWriteArrayList<Carrier>();
+      ForkJoinPool carrierPool = new ForkJoinPool(concurrencyConfig.getThreadCount(threadpoolName), pool -> {
+        Carrier thread = new Carrier(pool);
+        thread.setName("Rainfall-ehcache carrier " + threadpoolName + " - " + carriers.size());
+        thread.setDaemon(true);
+        carriers.add(thread);
+        return thread;
+      }, null, true);
+      carrierPools.put(threadpoolName, carrierPool);
+      carrierThreads.put(threadpoolName, carriers);
+
+      VirtualThreads clients = VirtualThreads.create("Rainfall-core Operations Thread " + threadpoolName, carrierPool);
+      log.info("Pool {} : {} clients on {}", threadpoolName, clientsPerPool, clients.getMode());
+      final RangeMap<WeightedOperation> operations = scenario.getOperations().get(threadpoolName);
+      for (int clientNb = 0; clientNb < clientsPerPool; clientNb++) {
+        clients.newThread(() -> {
+          try {
+            while (statisticsHolder.getTimeInNs() < endTime && failure.get() == null) {
+              operations.getNextRandom(weightRnd)
+                  .getOperation().exec(statisticsHolder, configurations, assertions);
+            }
+          } catch (Throwable t) {
+            failure.compareAndSet(null, t);
+          } finally {
+            done.countDown();
+          }
+        }).start();
+      }
+    }
+
+    markExecutionState(scenario, ExecutionState.ENDING);
+    try {
+      if (!done.await(durationInNs + SECONDS.toNanos(60), NANOSECONDS)) {
+        failure.compareAndSet(null, new TestException("Execution of Scenario timed out."));
+      }
+    } catch (InterruptedException e) {
+      throw new TestException("Execution of Scenario didn't stop correctly.", e);
+    } finally {
+      long elapsed = statisticsHolder.getTimeInNs() - startTime;
+      for (String threadpoolName : carrierPools.keySet()) {
+        ForkJoinPool carrierPool = carrierPools.get(threadpoolName);
+        long cpuTime = 0;
+        for (Carrier carrier : carrierThreads.get(threadpoolName)) {
+          cpuTime += carrier.getCpuTime();
+        }
+        carrierPool.shutdownNow();
+        double utilization = (double)cpuTime / ((double)elapsed * carrierPool.getParallelism());
+        carrierUtilization.put(threadpoolName, utilization);
+        log.info("Pool {} : carrier utilization {}%", threadpoolName, String.format(Locale.ROOT, "%.1f", utilization * 100));
+      }
+    }
+
+    Throwable t = failure.get();
+    if (t instanceof TestException) {
+      throw (TestException)t;
+    } else if (t != null) {
+      throw new TestException("Execution of Scenario failed.", t);
+    }
+  }
+
+  /**
+   * @return per pool, the CPU time of the carriers divided by their number and by the duration of the run.
+   * Clients running on the JDK carriers or on platform threads don't use the carriers of the pool, it is then 0.
+   */
+  public Map<String, Double> getCarrierUtilization() {
+    return carrierUtilization;
+  }
+
+  /**
+   * Carrier thread which keeps its CPU time once it has terminated : the carriers idle for too long are retired by
+   * the pool during the run, and the CPU time of a terminated thread can't be read anymore.
+   */
+  private static final class Carrier extends ForkJoinWorkerThread {
+
+    private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    private volatile long terminatedCpuTime = -1;
+
+    Carrier(final ForkJoinPool pool) {
+      super(pool);
+    }
+
+    @Override
+    protected void onTermination(final Throwable exception) {
+      try {
+        terminatedCpuTime = Math.max(0, threadMXBean.getCurrentThreadCpuTime());
+      } finally {
+        super.onTermination(exception);
+      }
+    }
+
+    long getCpuTime() {
+      long cpuTime = terminatedCpuTime;
+      if (cpuTime < 0) {
+        cpuTime = threadMXBean.getThreadCpuTime(getId());
+        if (cpuTime < 0) {
+          // terminated since terminatedCpuTime was read, or CPU time not supported
+          cpuTime = Math.max(0, terminatedCpuTime);
+        }
+      }
+      return cpuTime;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Execution : " + clientsPerPool + " clients per thread pool during " + NANOSECONDS.toSeconds(durationInNs) + " seconds";
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.execution;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates the client threads of {@link VirtualClients}.
+ * <p>
+ * The module is built for Java 11, so virtual threads are reached by reflection :
+ * <ul>
+ *   <li>on Java 21+, with {@code --add-opens java.base/java.lang=ALL-UNNAMED}, virtual threads scheduled on the
+ *   carriers given by the execution ({@link Mode#OWN_CARRIERS})</li>
+ *   <li>on Java 21+ otherwise, virtual threads scheduled on the JDK carriers, sized by
+ *   {@code -Djdk.virtualThreadScheduler.parallelism} ({@link Mode#JDK_CARRIERS})</li>
+ *   <li>before Java 21, platform threads with a small stack ({@link Mode#PLATFORM_THREADS})</li>
+ * </ul>
+ *
+ * @author Aurelien Broszniowski
+ */
+final class VirtualThreads {
+
+  enum Mode {
+    OWN_CARRIERS, JDK_CARRIERS, PLATFORM_THREADS
+  }
+
+  static final long PLATFORM_STACK_SIZE = 256 * 1024;
+
+  private final Mode mode;
+  private final ThreadFactory factory;
+
+  private VirtualThreads(final Mode mode, final ThreadFactory factory) {
+    this.mode = mode;
+    this.factory = factory;
+  }
+
+  static VirtualThreads create(final String name, final Executor carriers) {
+    Object builder = null;
+    Mode mode = Mode.OWN_CARRIERS;
+    try {
+      Class<?> builderClass = Class.forName("java.lang.ThreadBuilders$VirtualThreadBuilder");
+      Constructor<?> constructor = builderClass.getDeclaredConstructor(Executor.class);
+      constructor.setAccessible(true);
+      builder = constructor.newInstance(carriers);
+    } catch (Exception e) {
+      // java.lang not opened, or no virtual threads
+    }
+    if (builder == null) {
+      mode = Mode.JDK_CARRIERS;
+      try {
+        builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      } catch (Exception e) {
+        // no virtual threads
+      }
+    }
+    if (builder != null) {
+      try {
+        Class<?> builderInterface = Class.forName("java.lang.Thread$Builder");
+        builder = builderInterface.getMethod("name", String.class, long.class).invoke(builder, name + "-", 0L);
+        Method factory = builderInterface.getMethod("factory");
+        return new VirtualThreads(mode, (ThreadFactory)factory.invoke(builder));
+      } catch (Exception e) {
+        // fall back on platform threads
+      }
+    }
+
+    final AtomicLong counter = new AtomicLong();
+    return new VirtualThreads(Mode.PLATFORM_THREADS,
+        r -> new Thread(null, r, name + "-" + counter.getAndIncrement(), PLATFORM_STACK_SIZE));
+  }
+
+  Mode getMode() {
+    return mode;
+  }
+
+  Thread newThread(final Runnable runnable) {
+    return factory.newThread(runnable);
+  }
+}
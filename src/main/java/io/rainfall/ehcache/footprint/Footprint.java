@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.footprint;
+
+import io.rainfall.ObjectGenerator;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.PersistenceConfiguration;
+import org.ehcache.Cache;
+import org.ehcache.config.ResourceType;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+
+/**
+ * Measures the retained heap size per entry of a heap only cache, split into key, value and cache overhead.
+ * <p>
+ * The cache is filled with entries generated from sequential seeds, and the object graph reachable from the entry
+ * map of its heap store is walked before and after the fill. The walk starts below the store, so it doesn't reach
+ * the cache, its manager or the other caches, but a copier or serializer referenced by the entries is counted once
+ * in the cache overhead. The key and value sizes are those of the entries the store holds after the fill, so
+ * evicted entries are not counted, and all the sizes are per retained entry. Caches with an offheap, disk or
+ * clustered tier are rejected : their entries are not in the heap graph. The cache should be empty and not used by
+ * anything else while it is being measured.
+ * <p>
+ * The graph walk is done by jol-core. On recent JVMs it needs access to the JDK internals, e.g. with
+ * {@code --add-opens java.base/java.util=ALL-UNNAMED --add-opens java.base/java.util.concurrent=ALL-UNNAMED}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public final class Footprint {
+
+  private Footprint() {
+  }
+
+  /**
+   * @param cacheDefinition a heap only cache, as built by an Ehcache 3 cache manager
+   */
+  public static <K, V> FootprintReport measure(final io.rainfall.ehcache3.CacheDefinition<K, V> cacheDefinition,
+                                               final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
+                                               final long entries) {
+    checkEntries(entries);
+    Cache<K, V> cache = cacheDefinition.getCache();
+    if (!cache.getRuntimeConfiguration().getResourcePools().getResourceTypeSet()
+        .equals(Collections.singleton(ResourceType.Core.HEAP))) {
+      throw new IllegalArgumentException("Cache " + cacheDefinition.getName() + " is not a heap only cache");
+    }
+    Object store = field(cache, "store", cacheDefinition.getName());
+    long before = GraphLayout.parseInstance(field(store, "map", cacheDefinition.getName())).totalSize();
+    for (long seed = 0; seed < entries; seed++) {
+      cache.put(keyGenerator.generate(seed), valueGenerator.generate(seed));
+    }
+    long after = GraphLayout.parseInstance(field(store, "map", cacheDefinition.getName())).totalSize();
+
+    long retained = 0;
+    long keysBytes = 0;
+    long valuesBytes = 0;
+    for (Cache.Entry<K, V> entry : cache) {
+      retained++;
+      keysBytes += GraphLayout.parseInstance(entry.getKey()).totalSize();
+      valuesBytes += GraphLayout.parseInstance(entry.getValue()).totalSize();
+    }
+    return report(cacheDefinition.getName(), retained, keysBytes, valuesBytes, after - before);
+  }
+
+  /**
+   * @param cacheDefinition a heap only {@link net.sf.ehcache.Cache}, not decorated
+   */
+  public static <K, V> FootprintReport measure(final io.rainfall.ehcache2.CacheDefinition cacheDefinition,
+                                               final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
+                                               final long entries) {
+    checkEntries(entries);
+    Ehcache cache = cacheDefinition.getCache();
+    CacheConfiguration configuration = cache.getCacheConfiguration();
+    PersistenceConfiguration persistence = configuration.getPersistenceConfiguration();
+    if (configuration.isOverflowToOffHeap() || configuration.isOverflowToDisk() || configuration.isTerracottaClustered()
+        || (persistence != null && persistence.getStrategy() != PersistenceConfiguration.Strategy.NONE)) {
+      throw new IllegalArgumentException("Cache " + cacheDefinition.getName() + " is not a heap only cache");
+    }
+    Object map = field(field(cache, "compoundStore", cacheDefinition.getName()), "map", cacheDefinition.getName());
+    long before = GraphLayout.parseInstance(tables(map, cacheDefinition.getName())).totalSize();
+    for (long seed = 0; seed < entries; seed++) {
+      cache.put(new Element(keyGenerator.generate(seed), valueGenerator.generate(seed)));
+    }
+    long after = GraphLayout.parseInstance(tables(map, cacheDefinition.getName())).totalSize();
+
+    long retained = 0;
+    long keysBytes = 0;
+    long valuesBytes = 0;
+    for (Object key : cache.getKeys()) {
+      Element element = cache.getQuiet(key);
+      if (element != null) {
+        retained++;
+        keysBytes += GraphLayout.parseInstance(element.getObjectKey()).totalSize();
+        valuesBytes += GraphLayout.parseInstance(element.getObjectValue()).totalSize();
+      }
+    }
+    return report(cacheDefinition.getName(), retained, keysBytes, valuesBytes, after - before);
+  }
+
+  private static FootprintReport report(final String name, final long retained, final long keysBytes,
+                                        final long valuesBytes, final long retainedBytes) {
+    if (retained == 0) {
+      throw new IllegalStateException("Cache " + name + " holds no entry after the fill");
+    }
+    return new FootprintReport(name, retained, keysBytes, valuesBytes, retainedBytes);
+  }
+
+  /**
+   * The segments of the Ehcache 2 memory store map point back to the map, which points to the cache through its
+   * event listeners : only their entry tables are walked.
+   */
+  private static Object[] tables(final Object map, final String cacheName) {
+    Object[] segments = (Object[])field(map, "segments", cacheName);
+    Object[] tables = new Object[segments.length];
+    for (int i = 0; i < segments.length; i++) {
+      tables[i] = field(segments[i], "table", cacheName);
+    }
+    return tables;
+  }
+
+  private static Object field(final Object instance, final String name, final String cacheName) {
+    for (Class<?> type = instance.getClass(); type != null; type = type.getSuperclass()) {
+      try {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(instance);
+      } catch (NoSuchFieldException e) {
+        // look in the superclass
+      } catch (IllegalAccessException e) {
+        throw new IllegalArgumentException("Can not access the heap store of cache " + cacheName, e);
+      }
+    }
+    throw new IllegalArgumentException("No field " + name + " in " + instance.getClass().getName() + " of cache "
+                                       + cacheName + " : not an undecorated Ehcache heap only cache");
+  }
+
+  private static void checkEntries(final long entries) {
+    if (entries <= 0) {
+      throw new IllegalArgumentException("Number of entries must be strictly positive");
+    }
+  }
+}
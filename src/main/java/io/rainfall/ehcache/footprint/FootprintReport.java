@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.footprint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Heap footprint measured by {@link Footprint} for one cache, per entry it retained after the fill.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class FootprintReport {
+
+  private final String name;
+  private final long entries;
+  private final long keysBytes;
+  private final long valuesBytes;
+  private final long retainedBytes;
+
+  FootprintReport(final String name, final long entries, final long keysBytes, final long valuesBytes, final long retainedBytes) {
+    this.name = name;
+    this.entries = entries;
+    this.keysBytes = keysBytes;
+    this.valuesBytes = valuesBytes;
+    this.retainedBytes = retainedBytes;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getEntries() {
+    return entries;
+  }
+
+  /**
+   * @return heap growth of the cache per entry, keys and values included
+   */
+  public double getBytesPerEntry() {
+    return (double)retainedBytes / entries;
+  }
+
+  public double getKeyBytesPerEntry() {
+    return (double)keysBytes / entries;
+  }
+
+  public double getValueBytesPerEntry() {
+    return (double)valuesBytes / entries;
+  }
+
+  /**
+   * @return bytes per entry used by the cache itself : value holders or Elements, map nodes and tables, ...
+   */
+  public double getOverheadBytesPerEntry() {
+    return (double)(retainedBytes - keysBytes - valuesBytes) / entries;
+  }
+
+  /**
+   * @return number of entries of this shape fitting in the given number of bytes of heap
+   */
+  public long entriesPer(final long bytes) {
+    return (long)(bytes / getBytesPerEntry());
+  }
+
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add("Footprint of " + name + " with " + entries + " entries");
+    desc.add(String.format(Locale.ROOT, "  %.1f bytes per entry : key %.1f, value %.1f, cache overhead %.1f",
+        getBytesPerEntry(), getKeyBytesPerEntry(), getValueBytesPerEntry(), getOverheadBytesPerEntry()));
+    desc.add("  " + entriesPer(1L << 30) + " entries per GB");
+    return desc;
+  }
+
+  @Override
+  public String toString() {
+    return String.join(System.lineSeparator(), getDescription());
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.generator;
+
+import io.rainfall.SequenceGenerator;
+
+/**
+ * Decides which seeds make up a batch of keys for the bulk operations.
+ * <p>
+ * The first seed of a batch is always drawn from the {@link SequenceGenerator} of the operation, the following
+ * ones are either the next contiguous seeds, seeds spaced by a fixed stride, or new draws from the same
+ * sequence generator.
+ *
+ * @author Aurelien Broszniowski
+ */
+public abstract class BatchSequence {
+
+  /**
+   * Bounds the number of draws done to fill a batch with distinct keys, when the sequence keeps returning the
+   * same seeds (e.g. a narrow distribution), the batch is then smaller than requested.
+   */
+  public static final int MAX_DRAWS_PER_KEY = 10;
+
+  public static BatchSequence contiguous() {
+    return new Strided(1L);
+  }
+
+  public static BatchSequence strided(final long stride) {
+    if (stride <= 0) {
+      throw new IllegalArgumentException("Stride must be strictly positive");
+    }
+    return new Strided(stride);
+  }
+
+  public static BatchSequence fromDistribution() {
+    return new FromDistribution();
+  }
+
+  /**
+   * @param sequenceGenerator the sequence generator of the operation
+   * @param first             the first seed of the batch, drawn from the sequence generator
+   * @param index             the index of the seed in the batch, 0 being the first one
+   * @return the seed of the key at the given index of the batch
+   */
+  public abstract long seed(SequenceGenerator sequenceGenerator, long first, int index);
+
+  public abstract String getDescription();
+
+  static class Strided extends BatchSequence {
+
+    private final long stride;
+
+    Strided(final long stride) {
+      this.stride = stride;
+    }
+
+    @Override
+    public long seed(final SequenceGenerator sequenceGenerator, final long first, final int index) {
+      return first + index * stride;
+    }
+
+    @Override
+    public String getDescription() {
+      return stride == 1L ? "contiguous batch of keys" : "batch of keys with a stride of " + stride;
+    }
+  }
+
+  static class FromDistribution extends BatchSequence {
+
+    @Override
+    public long seed(final SequenceGenerator sequenceGenerator, final long first, final int index) {
+      return index == 0 ? first : sequenceGenerator.next();
+    }
+
+    @Override
+    public String getDescription() {
+      return "batch of keys drawn from the sequence";
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.generator;
+
+import io.rainfall.ObjectGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Generator returning objects generated once, before the run, so that the operations don't allocate keys and
+ * values while they are measured.
+ * <p>
+ * A key table holds one key per seed of the key space, the seeds outside of it are generated on the fly. A value
+ * pool holds a fixed number of values, shared by all the seeds with the same index modulo the pool size : the
+ * cache entries then share their value instances on heap, which has to be taken into account when measuring the
+ * footprint of a cache.
+ * <p>
+ * The operations still allocate the seed : {@link ObjectGenerator#generate(Long)} takes a boxed seed, and
+ * {@link Long#valueOf(long)} only caches the seeds from -128 to 127. That is one Long per generated key or value,
+ * instead of the key or value itself, unless the JIT can inline the call and scalar replace the box.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class Materialized<T> implements ObjectGenerator<T> {
+
+  private static final Logger log = LoggerFactory.getLogger(Materialized.class);
+
+  private final ObjectGenerator<T> source;
+  private final Object[] table;
+  private final boolean pooled;
+
+  Materialized(final ObjectGenerator<T> source, final int size, final boolean pooled) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Table size must be strictly positive");
+    }
+    this.source = source;
+    this.table = new Object[size];
+    this.pooled = pooled;
+    long start = System.nanoTime();
+    Arrays.parallelSetAll(table, i -> source.generate((long)i));
+    log.info("Generated {} {} in {} ms", size, source.getDescription(), NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  /**
+   * Generates the keys of the seeds from 0 (included) to keyCount (excluded).
+   */
+  public static <K> Materialized<K> keys(final ObjectGenerator<K> keyGenerator, final int keyCount) {
+    return new Materialized<K>(keyGenerator, keyCount, false);
+  }
+
+  /**
+   * Generates a pool of poolSize values, the value of a seed is the one of the seed modulo poolSize.
+   */
+  public static <V> Materialized<V> values(final ObjectGenerator<V> valueGenerator, final int poolSize) {
+    return new Materialized<V>(valueGenerator, poolSize, true);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T generate(final Long seed) {
+    long s = seed;
+    if (pooled) {
+      return (T)table[(int)Math.floorMod(s, (long)table.length)];
+    }
+    if (s >= 0 && s < table.length) {
+      return (T)table[(int)s];
+    }
+    return source.generate(seed);
+  }
+
+  @Override
+  public String getDescription() {
+    return source.getDescription() + (pooled ? " from a pool of " + table.length : " from a table of " + table.length);
+  }
+}
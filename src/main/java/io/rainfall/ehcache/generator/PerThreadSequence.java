@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.generator;
+
+import io.rainfall.SequenceGenerator;
+import io.rainfall.generator.RandomSequenceGenerator;
+import io.rainfall.generator.sequence.Distribution;
+
+import java.lang.ref.WeakReference;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Sequence drawn from one stream per thread, so that the operation threads don't contend on a shared generator.
+ * <p>
+ * The sequential streams cover the same seeds as {@link io.rainfall.generator.SequencesGenerator#sequentially()},
+ * either interleaved (thread i of n draws i, i + n, i + 2n...) or by blocks claimed from a shared counter once per
+ * block. The random streams are independent instances of the same random generator, one per thread, so they draw
+ * from the same distribution as the shared one.
+ * <p>
+ * The threads get their stream on their first seed. An interleaved sequence hands the stream of a terminated thread
+ * over to the next new thread, so that successive executions over the same scenario, e.g. a warmup then the measured
+ * run, carry on with the seeds not drawn yet.
+ *
+ * @author Aurelien Broszniowski
+ */
+public abstract class PerThreadSequence<S> implements SequenceGenerator {
+
+  private final ThreadLocal<S> streams = ThreadLocal.withInitial(this::newStream);
+
+  /**
+   * Thread i of threadCount draws the seeds i, i + threadCount, i + 2 * threadCount... At most threadCount threads
+   * can draw from the sequence at a time, a thread started after another one terminated takes over its seeds.
+   */
+  public static SequenceGenerator interleaved(final int threadCount) {
+    if (threadCount <= 0) {
+      throw new IllegalArgumentException("Thread count must be strictly positive");
+    }
+    return new Interleaved(threadCount);
+  }
+
+  /**
+   * Every thread claims blocks of blockSize contiguous seeds from a shared counter and draws them in order.
+   */
+  public static SequenceGenerator blocked(final int blockSize) {
+    if (blockSize <= 0) {
+      throw new IllegalArgumentException("Block size must be strictly positive");
+    }
+    return new Blocked(blockSize);
+  }
+
+  /**
+   * Every thread draws from its own instance of the sequence.
+   */
+  public static SequenceGenerator perThread(final Supplier<? extends SequenceGenerator> sequenceSupplier) {
+    return new Independent(sequenceSupplier);
+  }
+
+  /**
+   * Every thread draws from its own {@link RandomSequenceGenerator}, see
+   * {@link io.rainfall.generator.SequencesGenerator#atRandom(Distribution, long, long, long)}. Those generators are
+   * not seeded, the seeds drawn change from one run to the next, see
+   * {@link #atRandom(Distribution, long, long, long, long)} for reproducible streams.
+   */
+  public static SequenceGenerator atRandom(final Distribution distribution, final long min, final long max, final long width) {
+    return new Independent(() -> new RandomSequenceGenerator(distribution, min, max, width));
+  }
+
+  /**
+   * Every thread draws from its own random stream, seeded from the base seed and the index of the thread, in the
+   * order the threads draw their first seed. The same number of threads draws the same streams from one run to the
+   * next.
+   * <p>
+   * {@link Distribution#FLAT} draws uniformly in [min, max[, {@link Distribution#GAUSSIAN} draws around the middle of
+   * [min, max[ with width as standard deviation, again until the seed falls in the range. The other distributions of
+   * rainfall-core have no seeded stream.
+   */
+  public static SequenceGenerator atRandom(final Distribution distribution, final long min, final long max,
+                                           final long width, final long seed) {
+    if (distribution != Distribution.FLAT && distribution != Distribution.GAUSSIAN) {
+      throw new IllegalArgumentException("Only the FLAT and GAUSSIAN distributions can be seeded");
+    }
+    if (min >= max) {
+      throw new IllegalArgumentException("Min must be lower than max");
+    }
+    if (distribution == Distribution.GAUSSIAN && width <= 0) {
+      throw new IllegalArgumentException("Width must be strictly positive");
+    }
+    return new Seeded(distribution, min, max, width, seed);
+  }
+
+  protected abstract S newStream();
+
+  protected abstract long next(S stream);
+
+  @Override
+  public long next() {
+    return next(streams.get());
+  }
+
+  static class Interleaved extends PerThreadSequence<Interleaved.Lane> {
+
+    private static final long CLAIM_TIMEOUT_IN_NS = TimeUnit.SECONDS.toNanos(5);
+
+    private final int threadCount;
+    private final Lane[] lanes;
+
+    Interleaved(final int threadCount) {
+      this.threadCount = threadCount;
+      this.lanes = new Lane[threadCount];
+      for (int i = 0; i < threadCount; i++) {
+        lanes[i] = new Lane(i);
+      }
+    }
+
+    // the threads of a previous execution may still be terminating when the new ones draw their first seed
+    @Override
+    protected Lane newStream() {
+      long deadline = System.nanoTime() + CLAIM_TIMEOUT_IN_NS;
+      while (true) {
+        synchronized (lanes) {
+          for (Lane lane : lanes) {
+            if (!lane.isOwnerAlive()) {
+              lane.owner = new WeakReference<Thread>(Thread.currentThread());
+              return lane;
+            }
+          }
+        }
+        if (System.nanoTime() - deadline >= 0) {
+          throw new IllegalStateException("More than " + threadCount + " threads draw from the interleaved sequence");
+        }
+        Thread.yield();
+      }
+    }
+
+    @Override
+    protected long next(final Lane lane) {
+      long seed = lane.next;
+      lane.next = seed + threadCount;
+      return seed;
+    }
+
+    @Override
+    public String getDescription() {
+      return "Sequential, interleaved over " + threadCount + " threads";
+    }
+
+    // next seed of the thread owning the lane, only drawn by its owner. Terminating the owner publishes it to
+    // the thread taking the lane over, which sees the owner dead.
+    static final class Lane {
+      private long next;
+      private WeakReference<Thread> owner;
+
+      Lane(final long first) {
+        this.next = first;
+      }
+
+      private boolean isOwnerAlive() {
+        Thread thread = owner == null ? null : owner.get();
+        return thread != null && thread.isAlive();
+      }
+    }
+  }
+
+  static class Blocked extends PerThreadSequence<long[]> {
+
+    private final int blockSize;
+    private final AtomicLong nextBlock = new AtomicLong();
+
+    Blocked(final int blockSize) {
+      this.blockSize = blockSize;
+    }
+
+    // next seed of the thread, end of its current block
+    @Override
+    protected long[] newStream() {
+      return new long[] { 0L, 0L };
+    }
+
+    @Override
+    protected long next(final long[] stream) {
+      if (stream[0] == stream[1]) {
+        stream[0] = nextBlock.getAndAdd(blockSize);
+        stream[1] = stream[0] + blockSize;
+      }
+      return stream[0]++;
+    }
+
+    @Override
+    public String getDescription() {
+      return "Sequential, by blocks of " + blockSize + " seeds per thread";
+    }
+  }
+
+  static class Seeded extends PerThreadSequence<Random> {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final Distribution distribution;
+    private final long min;
+    private final long max;
+    private final long width;
+    private final long seed;
+    private final AtomicLong nextIndex = new AtomicLong();
+
+    Seeded(final Distribution distribution, final long min, final long max, final long width, final long seed) {
+      this.distribution = distribution;
+      this.min = min;
+      this.max = max;
+      this.width = width;
+      this.seed = seed;
+    }
+
+    // the index is spread over the 64 bits, so that the streams of consecutive threads are unrelated
+    @Override
+    protected Random newStream() {
+      long index = nextIndex.getAndIncrement();
+      return new Random(mix(seed + (index + 1) * GOLDEN_GAMMA));
+    }
+
+    @Override
+    protected long next(final Random stream) {
+      double range = (double)max - min;
+      if (distribution == Distribution.FLAT) {
+        return Math.min(max - 1, min + (long)(stream.nextDouble() * range));
+      }
+      double center = min + range / 2;
+      while (true) {
+        double value = Math.floor(center + stream.nextGaussian() * width);
+        if (value >= min && value < max) {
+          return (long)value;
+        }
+      }
+    }
+
+    private static long mix(long z) {
+      z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+      z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+      return z ^ (z >>> 31);
+    }
+
+    @Override
+    public String getDescription() {
+      return "Random " + distribution + " [" + min + ", " + max + "[" + (distribution == Distribution.GAUSSIAN ? " width = " + width : "")
+             + ", seeded with " + seed + ", one stream per thread";
+    }
+  }
+
+  static class Independent extends PerThreadSequence<SequenceGenerator> {
+
+    private final Supplier<? extends SequenceGenerator> sequenceSupplier;
+    private volatile String description;
+
+    Independent(final Supplier<? extends SequenceGenerator> sequenceSupplier) {
+      this.sequenceSupplier = sequenceSupplier;
+    }
+
+    @Override
+    protected SequenceGenerator newStream() {
+      SequenceGenerator stream = sequenceSupplier.get();
+      if (description == null) {
+        description = stream.getDescription();
+      }
+      return stream;
+    }
+
+    @Override
+    protected long next(final SequenceGenerator stream) {
+      return stream.next();
+    }
+
+    // described by the first stream, a stream is only built for it when no thread drew a seed yet
+    @Override
+    public String getDescription() {
+      if (description == null) {
+        newStream();
+      }
+      return description + ", one stream per thread";
+    }
+  }
+}
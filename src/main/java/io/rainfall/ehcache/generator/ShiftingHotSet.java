@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.generator;
+
+import io.rainfall.SequenceGenerator;
+
+import java.math.BigInteger;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sequence whose hot set moves over the key space as time goes by, so that eviction has to keep re-learning it.
+ * <p>
+ * A given ratio of the seeds is drawn uniformly from a hot window of a fixed size, the other seeds come from
+ * the cold sequence (any {@link SequenceGenerator}, e.g. a flat or gaussian distribution over the whole key
+ * space). Every period, the hot window moves forward by a number of keys, wrapping around the key space. It can
+ * drift slowly, one key at a time, or jump by its whole size to provoke a miss storm.
+ * <p>
+ * The clock starts on the first seed drawn.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ShiftingHotSet implements SequenceGenerator {
+
+  private final long min;
+  private final long range;
+  private final long hotSetSize;
+  private final double hotRatio;
+  private final long step;
+  private final long periodInNs;
+  private final SequenceGenerator cold;
+  private final AtomicLong startTime = new AtomicLong(Long.MIN_VALUE);
+
+  /**
+   * @param min        first seed of the key space
+   * @param max        seed after the last one of the key space
+   * @param hotSetSize number of seeds in the hot window
+   * @param hotRatio   share of the seeds drawn from the hot window, between 0 and 1
+   * @param step       number of seeds the hot window moves forward every period
+   * @param period     time between two moves of the hot window
+   * @param cold       sequence of the seeds not drawn from the hot window
+   */
+  public ShiftingHotSet(final long min, final long max, final long hotSetSize, final double hotRatio,
+                        final long step, final long period, final TimeUnit timeUnit, final SequenceGenerator cold) {
+    if (max <= min) {
+      throw new IllegalArgumentException("Key space must not be empty");
+    }
+    if (hotSetSize <= 0 || hotSetSize > max - min) {
+      throw new IllegalArgumentException("Hot set size must be strictly positive and fit in the key space");
+    }
+    if (hotRatio < 0 || hotRatio > 1) {
+      throw new IllegalArgumentException("Hot ratio must be between 0 and 1");
+    }
+    if (step < 0 || period <= 0) {
+      throw new IllegalArgumentException("Hot set shift must be positive and its period strictly positive");
+    }
+    this.min = min;
+    this.range = max - min;
+    this.hotSetSize = hotSetSize;
+    this.hotRatio = hotRatio;
+    this.step = step;
+    this.periodInNs = timeUnit.toNanos(period);
+    this.cold = cold;
+  }
+
+  /**
+   * Hot window moving forward continuously, at the given number of keys per second.
+   */
+  public static ShiftingHotSet drifting(final long min, final long max, final long hotSetSize, final double hotRatio,
+                                        final long keysPerSecond, final SequenceGenerator cold) {
+    if (keysPerSecond <= 0) {
+      throw new IllegalArgumentException("Drift speed must be strictly positive");
+    }
+    return new ShiftingHotSet(min, max, hotSetSize, hotRatio, 1, Math.max(1, TimeUnit.SECONDS.toNanos(1) / keysPerSecond),
+        TimeUnit.NANOSECONDS, cold);
+  }
+
+  /**
+   * Hot window jumping to the next, disjoint, window of the key space every period.
+   */
+  public static ShiftingHotSet jumping(final long min, final long max, final long hotSetSize, final double hotRatio,
+                                       final long period, final TimeUnit timeUnit, final SequenceGenerator cold) {
+    return new ShiftingHotSet(min, max, hotSetSize, hotRatio, hotSetSize, period, timeUnit, cold);
+  }
+
+  @Override
+  public long next() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    if (random.nextDouble() >= hotRatio) {
+      return cold.next();
+    }
+    return min + Math.floorMod(windowOffset() + random.nextLong(hotSetSize), range);
+  }
+
+  /**
+   * @return offset of the first seed of the hot window in the key space
+   */
+  public long windowOffset() {
+    long now = System.nanoTime();
+    long start = startTime.get();
+    if (start == Long.MIN_VALUE) {
+      startTime.compareAndSet(Long.MIN_VALUE, now);
+      start = startTime.get();
+    }
+    long shifts = ((now - start) / periodInNs) % range;
+    long shift = step % range;
+    if (shifts == 0 || shift <= Long.MAX_VALUE / shifts) {
+      return (shifts * shift) % range;
+    }
+    return BigInteger.valueOf(shifts).multiply(BigInteger.valueOf(shift)).mod(BigInteger.valueOf(range)).longValue();
+  }
+
+  @Override
+  public String getDescription() {
+    return "Hot set of " + hotSetSize + " keys (" + Math.round(hotRatio * 100) + "% of the accesses) in [" + min + ", "
+           + (min + range) + "[, moving " + step + " keys every " + TimeUnit.NANOSECONDS.toMicros(periodInNs)
+           + " us, cold keys : " + cold.getDescription();
+  }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.operation;
+
+import io.rainfall.TestException;
+import io.rainfall.ehcache.execution.Sampled;
+import io.rainfall.ehcache.execution.ScheduledStart;
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.statistics.StatisticsHolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
+
+/**
+ * Issues the same operation to several caches concurrently, instead of one cache after the other.
+ * <p>
+ * Every cache records its own latency, measured from the common start of the fan-out, and the fan-out records
+ * its end-to-end latency, i.e. the latency of the slowest cache, under its own name. The fan-out result is
+ * {@link EhcacheResult#EXCEPTION} if any cache failed, {@link EhcacheResult#MISS} if any cache missed, otherwise
+ * the result of the first cache.
+ * <p>
+ * The first cache is called by the operation thread, the other ones by worker threads dedicated to that operation
+ * thread, started on its first fan-out and parked in between, so that a fan-out allocates nothing. Run the
+ * scenario {@link io.rainfall.ehcache.execution.Sampled#sampled sampled} by the fan-out, so that the workers are
+ * stopped at the end of each run. The workers of operation threads that terminated are also stopped whenever a new
+ * operation thread starts fanning out, and {@link #close()} stops them all for good.
+ *
+ * @author Aurelien Broszniowski
+ */
+public final class FanOut implements Sampled.Sampler, Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(FanOut.class);
+
+  /**
+   * The operation on one cache of the fan-out : executes it, records its own result and returns it.
+   */
+  public interface Task<K, V> {
+    EhcacheResult execute(StatisticsHolder statisticsHolder, int cacheIndex, K key, V value, long start);
+  }
+
+  private final String name;
+  private final ThreadLocal<Round> rounds = new ThreadLocal<Round>();
+  private final Queue<Round> allRounds = new ConcurrentLinkedQueue<Round>();
+  private volatile boolean closed;
+
+  public FanOut(final String name) {
+    this.name = name;
+  }
+
+  public static FanOut fanOut(final String name) {
+    return new FanOut(name);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Runs the task for each of the caches concurrently, then records the latency of the slowest one.
+   *
+   * @param cacheCount number of caches, strictly positive
+   */
+  public <K, V> void execute(final StatisticsHolder statisticsHolder, final Task<K, V> task, final int cacheCount,
+                             final K key, final V value) throws TestException {
+    if (closed) {
+      throw new TestException("Fan-out " + name + " is closed");
+    }
+    Round round = rounds.get();
+    if (round == null || round.stopped || round.workers.length < cacheCount - 1) {
+      if (round != null) {
+        allRounds.remove(round);
+        round.stop();
+      }
+      reclaimOrphanRounds();
+      round = new Round(cacheCount - 1);
+      rounds.set(round);
+      allRounds.add(round);
+    }
+
+    final long start = ScheduledStart.getTimeInNs(statisticsHolder);
+    EhcacheResult result = round.execute(statisticsHolder, task, cacheCount, key, value, start);
+    long end = statisticsHolder.getTimeInNs();
+    statisticsHolder.record(name, (end - start), result);
+  }
+
+  @Override
+  public void start() {
+    // the workers are started by the first fan-out of each operation thread
+  }
+
+  /**
+   * Stops the worker threads of all the operation threads, the next fan-outs start new ones.
+   */
+  @Override
+  public void stop() {
+    Round round;
+    while ((round = allRounds.poll()) != null) {
+      round.stop();
+    }
+  }
+
+  /**
+   * Stops the worker threads of all the operation threads, the fan-out can't be used anymore.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    stop();
+  }
+
+  private void reclaimOrphanRounds() {
+    for (Iterator<Round> iterator = allRounds.iterator(); iterator.hasNext(); ) {
+      Round round = iterator.next();
+      if (!round.owner.isAlive()) {
+        iterator.remove();
+        round.stop();
+      }
+    }
+  }
+
+  /**
+   * The worker threads of one operation thread, and the fan-out they are running.
+   */
+  private final class Round {
+
+    private final Thread owner = Thread.currentThread();
+    private final Worker[] workers;
+    private final EhcacheResult[] results;
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile boolean stopped;
+    private StatisticsHolder statisticsHolder;
+    private Task<Object, Object> task;
+    private Object key;
+    private Object value;
+    private long start;
+
+    Round(final int workerCount) {
+      this.workers = new Worker[workerCount];
+      this.results = new EhcacheResult[workerCount + 1];
+      for (int i = 0; i < workerCount; i++) {
+        workers[i] = new Worker(this, i + 1);
+        Thread thread = new Thread(workers[i], "Rainfall-ehcache fan-out " + name + " - " + owner.getName() + " - " + (i + 1));
+        thread.setDaemon(true);
+        workers[i].thread = thread;
+        thread.start();
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    <K, V> EhcacheResult execute(final StatisticsHolder statisticsHolder, final Task<K, V> task, final int cacheCount,
+                                 final K key, final V value, final long start) {
+      this.statisticsHolder = statisticsHolder;
+      this.task = (Task<Object, Object>)task;
+      this.key = key;
+      this.value = value;
+      this.start = start;
+      pending.set(cacheCount - 1);
+      for (int i = 0; i < cacheCount - 1; i++) {
+        workers[i].signal();
+      }
+
+      EhcacheResult result = run(0);
+      while (pending.get() > 0) {
+        if (stopped) {
+          // stopped while fanning out, the results of the caches left are unknown
+          return EXCEPTION;
+        }
+        LockSupport.park(this);
+      }
+      for (int i = 1; i < cacheCount; i++) {
+        EhcacheResult taskResult = results[i];
+        if (taskResult == EXCEPTION || (taskResult == MISS && result != EXCEPTION)) {
+          result = taskResult;
+        }
+      }
+      return result;
+    }
+
+    EhcacheResult run(final int cacheIndex) {
+      try {
+        return task.execute(statisticsHolder, cacheIndex, key, value, start);
+      } catch (Throwable e) {
+        log.error("Fan-out {} failed on cache {}", name, cacheIndex, e);
+        return EXCEPTION;
+      }
+    }
+
+    void done(final int cacheIndex, final EhcacheResult result) {
+      results[cacheIndex] = result;
+      if (pending.decrementAndGet() == 0) {
+        LockSupport.unpark(owner);
+      }
+    }
+
+    void stop() {
+      stopped = true;
+      for (Worker worker : workers) {
+        worker.stop();
+      }
+      LockSupport.unpark(owner);
+    }
+  }
+
+  private static final class Worker implements Runnable {
+
+    private final Round round;
+    private final int cacheIndex;
+    private volatile long signals;
+    private volatile boolean stopped;
+    private Thread thread;
+
+    Worker(final Round round, final int cacheIndex) {
+      this.round = round;
+      this.cacheIndex = cacheIndex;
+    }
+
+    void signal() {
+      signals++;
+      LockSupport.unpark(thread);
+    }
+
+    void stop() {
+      stopped = true;
+      LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void run() {
+      long done = 0;
+      while (true) {
+        while (signals == done && !stopped) {
+          LockSupport.park(this);
+        }
+        if (signals == done) {
+          return;
+        }
+        done = signals;
+        round.done(cacheIndex, round.run(cacheIndex));
+      }
+    }
+  }
+}
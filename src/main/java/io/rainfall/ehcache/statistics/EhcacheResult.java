@@ -5,5 +5,6 @@ package io.rainfall.ehcache.statistics;
  */
 public enum EhcacheResult {
   PUT, GET, MISS, REMOVE, REMOVEVALUE, EXCEPTION, PUTALL, GETALL, REMOVEALL, PUTIFABSENT, REPLACE, REPLACEVALUE,
-  REMOVEVALUE_MISS, REPLACE_MISS, PUTIFABSENT_MISS, REPLACEVALUE_MISS
+  REMOVEVALUE_MISS, REPLACE_MISS, PUTIFABSENT_MISS, REPLACEVALUE_MISS, LOAD,
+  MISS_EXPIRED, MISS_ABSENT, VERIFIED, VERIFICATION_SKIPPED
 }
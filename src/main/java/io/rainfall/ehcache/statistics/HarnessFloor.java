@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.statistics;
+
+/**
+ * Running estimate of the median latency recorded against a no-op cache, i.e. the part of every recorded latency
+ * that is spent in the harness (clock reads, call through the cache interface) rather than in the cache.
+ * <p>
+ * The estimate starts at the first sample and moves by a small step towards each following one, so it converges
+ * to the median without keeping any history. It is not used before {@link #WARMUP_SAMPLES} samples, see
+ * {@link #isConverged()}. Updates from concurrent threads may be lost, which only slows down the convergence.
+ *
+ * @author Aurelien Broszniowski
+ */
+public final class HarnessFloor {
+
+  public static final int WARMUP_SAMPLES = 10_000;
+
+  private volatile long estimateInNs;
+  private volatile int samples;
+
+  public void sample(final long latencyInNs) {
+    int count = samples;
+    if (count < WARMUP_SAMPLES) {
+      samples = count + 1;
+    }
+    long estimate = estimateInNs;
+    if (count == 0) {
+      estimateInNs = latencyInNs;
+      return;
+    }
+    long step = Math.max(1L, estimate >> 5);
+    if (latencyInNs > estimate) {
+      estimateInNs = estimate + step;
+    } else if (latencyInNs < estimate) {
+      estimateInNs = Math.max(latencyInNs, estimate - step);
+    }
+  }
+
+  public long getInNs() {
+    return estimateInNs;
+  }
+
+  /**
+   * @return true once enough samples were taken for the estimate to be close to the median
+   */
+  public boolean isConverged() {
+    return samples >= WARMUP_SAMPLES;
+  }
+
+  /**
+   * @return the latency, minus the harness floor, never below 0
+   */
+  public long subtractFrom(final long latencyInNs) {
+    return Math.max(0L, latencyInNs - estimateInNs);
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.statistics;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUTIFABSENT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.REMOVEVALUE;
+import static io.rainfall.ehcache.statistics.EhcacheResult.REPLACE;
+import static io.rainfall.ehcache.statistics.EhcacheResult.REPLACEVALUE;
+
+/**
+ * One {@link HarnessFloor} per result type. The results of the same operation share their floor, e.g. a get that
+ * hits and one that misses, since the no-op cache only ever gives one of them.
+ *
+ * @author Aurelien Broszniowski
+ */
+public final class HarnessFloors {
+
+  private final HarnessFloor[] floors = new HarnessFloor[EhcacheResult.values().length + 1];
+
+  public HarnessFloors() {
+    for (int i = 0; i < floors.length; i++) {
+      floors[i] = new HarnessFloor();
+    }
+  }
+
+  /**
+   * @return the floor of the result, results that are not {@link EhcacheResult}s share one floor
+   */
+  public HarnessFloor of(final Enum<?> result) {
+    if (!(result instanceof EhcacheResult)) {
+      return floors[floors.length - 1];
+    }
+    return floors[operationOf((EhcacheResult)result).ordinal()];
+  }
+
+  private static EhcacheResult operationOf(final EhcacheResult result) {
+    switch (result) {
+      case MISS:
+      case MISS_EXPIRED:
+      case MISS_ABSENT:
+        return GET;
+      case PUTIFABSENT_MISS:
+        return PUTIFABSENT;
+      case REPLACE_MISS:
+        return REPLACE;
+      case REPLACEVALUE_MISS:
+        return REPLACEVALUE;
+      case REMOVEVALUE_MISS:
+        return REMOVEVALUE;
+      default:
+        return result;
+    }
+  }
+}
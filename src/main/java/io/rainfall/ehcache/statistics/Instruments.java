@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.statistics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograms of the measures that are not operation latencies, e.g. the serialized sizes or the bytes allocated per
+ * operation, or the times spent in the serializers, copiers and listeners called by the cache.
+ * <p>
+ * They don't go through the {@link io.rainfall.statistics.StatisticsHolder}, whose histograms and report are in
+ * ns : each instrument registers its own HdrHistogram with its unit here, once, when it is created. The histograms
+ * are reported separately, in instruments.csv when closed, and can be read at any time with {@link #histogram}.
+ * Plain counts, e.g. of the events an instrument could not measure, are registered as counters and reported with
+ * the histograms.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class Instruments implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(Instruments.class);
+
+  public enum Unit {
+    NANOSECONDS("ns"), BYTES("bytes");
+
+    private final String symbol;
+
+    Unit(final String symbol) {
+      this.symbol = symbol;
+    }
+
+    public String getSymbol() {
+      return symbol;
+    }
+  }
+
+  private final File directory;
+  private final Map<String, Instrument> instruments = new LinkedHashMap<String, Instrument>();
+  private final Map<String, LongAdder> counters = new LinkedHashMap<String, LongAdder>();
+
+  public Instruments(final File directory) {
+    this.directory = directory;
+  }
+
+  public static Instruments instruments(final String directory) {
+    return new Instruments(new File(directory));
+  }
+
+  /**
+   * @return the histogram to record the measures of the instrument into, the same one when the instrument was
+   * already registered with the same unit
+   */
+  public synchronized Histogram register(final String name, final Unit unit) {
+    Instrument instrument = instruments.get(name);
+    if (instrument == null) {
+      instrument = new Instrument(unit);
+      instruments.put(name, instrument);
+    } else if (instrument.unit != unit) {
+      throw new IllegalArgumentException("Instrument " + name + " is already registered in " + instrument.unit.symbol);
+    }
+    return instrument.histogram;
+  }
+
+  /**
+   * @return the counter to count the events of the instrument with, the same one when it was already registered
+   */
+  public synchronized LongAdder registerCounter(final String name) {
+    LongAdder counter = counters.get(name);
+    if (counter == null) {
+      counter = new LongAdder();
+      counters.put(name, counter);
+    }
+    return counter;
+  }
+
+  public synchronized Histogram histogram(final String name) {
+    Instrument instrument = instruments.get(name);
+    if (instrument == null) {
+      throw new IllegalArgumentException("No instrument registered with the name " + name);
+    }
+    return instrument.histogram;
+  }
+
+  /**
+   * Resets all the histograms, e.g. between a warmup and the measured run.
+   */
+  public synchronized void reset() {
+    for (Instrument instrument : instruments.values()) {
+      instrument.histogram.reset();
+    }
+    for (LongAdder counter : counters.values()) {
+      counter.reset();
+    }
+  }
+
+  public synchronized List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    for (Map.Entry<String, Instrument> entry : instruments.entrySet()) {
+      Histogram histogram = entry.getValue().histogram;
+      desc.add(String.format(Locale.ROOT, "%s : %d measures, mean %.1f, median %d, 99%% %d, max %d (%s)",
+          entry.getKey(), histogram.getTotalCount(), histogram.getMean(), histogram.getValueAtPercentile(50),
+          histogram.getValueAtPercentile(99), histogram.getMaxValue(), entry.getValue().unit.symbol));
+    }
+    for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+      desc.add(String.format(Locale.ROOT, "%s : %d", entry.getKey(), entry.getValue().sum()));
+    }
+    return desc;
+  }
+
+  /**
+   * Writes the histograms summary to instruments.csv.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    for (String line : getDescription()) {
+      log.info(line);
+    }
+    directory.mkdirs();
+    PrintWriter out = new PrintWriter(new File(directory, "instruments.csv"), "UTF-8");
+    try {
+      out.println("instrument,unit,count,mean,50%,90%,99%,99.9%,max");
+      for (Map.Entry<String, Instrument> entry : instruments.entrySet()) {
+        Histogram histogram = entry.getValue().histogram;
+        out.println(String.format(Locale.ROOT, "%s,%s,%d,%.1f,%d,%d,%d,%d,%d",
+            entry.getKey(), entry.getValue().unit.symbol, histogram.getTotalCount(), histogram.getMean(),
+            histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90),
+            histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9), histogram.getMaxValue()));
+      }
+      for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+        out.println(String.format(Locale.ROOT, "%s,count,%d,,,,,,", entry.getKey(), entry.getValue().sum()));
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  private static final class Instrument {
+    private final Unit unit;
+    private final Histogram histogram = new ConcurrentHistogram(3);
+
+    Instrument(final Unit unit) {
+      this.unit = unit;
+    }
+  }
+}
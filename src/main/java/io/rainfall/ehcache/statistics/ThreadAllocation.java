@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.statistics;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Bytes allocated by the current thread, from the allocation counters of the JVM threads.
+ * <p>
+ * Reading the counter may allocate by itself, that overhead is measured once and subtracted from the measures.
+ * When the JVM doesn't count the allocations, nothing is measured.
+ *
+ * @author Aurelien Broszniowski
+ */
+public final class ThreadAllocation {
+
+  private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = threadMXBean();
+  private static final long OVERHEAD = overhead();
+
+  private ThreadAllocation() {
+  }
+
+  private static com.sun.management.ThreadMXBean threadMXBean() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+      return null;
+    }
+    com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean)bean;
+    if (!threadMXBean.isThreadAllocatedMemorySupported()) {
+      return null;
+    }
+    threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    return threadMXBean;
+  }
+
+  private static long overhead() {
+    if (THREAD_MX_BEAN == null) {
+      return 0;
+    }
+    long overhead = Long.MAX_VALUE;
+    for (int i = 0; i < 1000; i++) {
+      long before = allocatedBytes();
+      overhead = Math.min(overhead, allocatedBytes() - before);
+    }
+    return overhead;
+  }
+
+  public static boolean isSupported() {
+    return THREAD_MX_BEAN != null;
+  }
+
+  /**
+   * @return bytes allocated by the current thread since it started, 0 if not supported
+   */
+  public static long allocatedBytes() {
+    return THREAD_MX_BEAN == null ? 0 : THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /**
+   * @param allocatedBytes bytes allocated by the current thread at the start of the measure
+   * @return bytes allocated by the current thread since then
+   */
+  public static long since(final long allocatedBytes) {
+    return Math.max(0, allocatedBytes() - allocatedBytes - OVERHEAD);
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.trace;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Layout of the binary access trace files.
+ * <p>
+ * A trace file is a header followed by fixed size records, all big endian :
+ * <pre>
+ *   header : int magic, int version
+ *   record : long timestamp (ns), long key id, int value size (-1 if unknown), byte operation, 3 bytes padding
+ * </pre>
+ * Fixed size records let a trace be memory-mapped and read from any index by several threads.
+ *
+ * @author Aurelien Broszniowski
+ */
+public final class TraceFile {
+
+  public static final int MAGIC = 0x52465452; // "RFTR"
+  public static final int VERSION = 1;
+  public static final int HEADER_SIZE = 8;
+  public static final int RECORD_SIZE = 24;
+
+  static final int TIMESTAMP_OFFSET = 0;
+  static final int KEY_OFFSET = 8;
+  static final int VALUE_SIZE_OFFSET = 16;
+  static final int OP_OFFSET = 20;
+
+  private TraceFile() {
+  }
+
+  static void writeHeader(final ByteBuffer buffer) {
+    buffer.putInt(MAGIC).putInt(VERSION);
+  }
+
+  static void checkHeader(final ByteBuffer buffer) {
+    if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+      throw new IllegalArgumentException("Not a trace file");
+    }
+    if (buffer.getInt(4) != VERSION) {
+      throw new IllegalArgumentException("Unsupported trace file version " + buffer.getInt(4));
+    }
+  }
+
+  static void writeRecord(final ByteBuffer buffer, final long timestamp, final long keyId, final int valueSize, final TraceOp op) {
+    buffer.putLong(timestamp).putLong(keyId).putInt(valueSize).put(op.code()).put((byte)0).putShort((short)0);
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.trace;
+
+/**
+ * Cache operation of a trace record. Bulk operations are traced as one record per key, with the bulk type.
+ *
+ * @author Aurelien Broszniowski
+ */
+public enum TraceOp {
+  GET, PUT, REMOVE, PUT_IF_ABSENT, REPLACE, GET_ALL, PUT_ALL, REMOVE_ALL;
+
+  private static final TraceOp[] VALUES = values();
+
+  public byte code() {
+    return (byte)ordinal();
+  }
+
+  public static TraceOp fromCode(final byte code) {
+    if (code < 0 || code >= VALUES.length) {
+      throw new IllegalArgumentException("Unknown trace operation code " + code);
+    }
+    return VALUES[code];
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.trace;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static io.rainfall.ehcache.trace.TraceFile.HEADER_SIZE;
+import static io.rainfall.ehcache.trace.TraceFile.KEY_OFFSET;
+import static io.rainfall.ehcache.trace.TraceFile.OP_OFFSET;
+import static io.rainfall.ehcache.trace.TraceFile.RECORD_SIZE;
+import static io.rainfall.ehcache.trace.TraceFile.TIMESTAMP_OFFSET;
+import static io.rainfall.ehcache.trace.TraceFile.VALUE_SIZE_OFFSET;
+
+/**
+ * Memory-mapped, read-only view of a trace file (see {@link TraceFile}).
+ * <p>
+ * The file is mapped in chunks of whole records, so traces larger than 2GB can be read, and the records are read
+ * with absolute gets, so a reader can be shared by all the threads of a run. Only the pages being read are
+ * loaded, the trace doesn't go to the Java heap.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TraceReader implements Closeable {
+
+  private static final int RECORDS_PER_CHUNK = Integer.MAX_VALUE / RECORD_SIZE;
+
+  private final File file;
+  private final RandomAccessFile randomAccessFile;
+  private final MappedByteBuffer[] chunks;
+  private final long size;
+
+  public TraceReader(final File file) throws IOException {
+    this.file = file;
+    this.randomAccessFile = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = randomAccessFile.getChannel();
+      long length = channel.size();
+      TraceFile.checkHeader(channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(length, HEADER_SIZE)));
+      this.size = (length - HEADER_SIZE) / RECORD_SIZE;
+      if (size == 0) {
+        throw new IllegalArgumentException("Trace file " + file + " is empty");
+      }
+      int chunkCount = (int)((size + RECORDS_PER_CHUNK - 1) / RECORDS_PER_CHUNK);
+      this.chunks = new MappedByteBuffer[chunkCount];
+      for (int i = 0; i < chunkCount; i++) {
+        long first = (long)i * RECORDS_PER_CHUNK;
+        long records = Math.min(RECORDS_PER_CHUNK, size - first);
+        chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE, records * RECORD_SIZE);
+      }
+    } catch (IOException | RuntimeException e) {
+      randomAccessFile.close();
+      throw e;
+    }
+  }
+
+  /**
+   * @return number of records of the trace
+   */
+  public long size() {
+    return size;
+  }
+
+  public long timestamp(final long index) {
+    return chunk(index).getLong(offset(index) + TIMESTAMP_OFFSET);
+  }
+
+  public long keyId(final long index) {
+    return chunk(index).getLong(offset(index) + KEY_OFFSET);
+  }
+
+  public int valueSize(final long index) {
+    return chunk(index).getInt(offset(index) + VALUE_SIZE_OFFSET);
+  }
+
+  public TraceOp op(final long index) {
+    return TraceOp.fromCode(chunk(index).get(offset(index) + OP_OFFSET));
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  private ByteBuffer chunk(final long index) {
+    return chunks[(int)(index / RECORDS_PER_CHUNK)];
+  }
+
+  private static int offset(final long index) {
+    return (int)(index % RECORDS_PER_CHUNK) * RECORD_SIZE;
+  }
+
+  @Override
+  public void close() throws IOException {
+    randomAccessFile.close();
+  }
+}
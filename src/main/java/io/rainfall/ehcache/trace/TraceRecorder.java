@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.trace;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records cache accesses into a trace file (see {@link TraceFile}), to be replayed with {@link TraceReplay}.
+ * <p>
+ * Every thread writes into its own single-producer ring buffer, without locks nor allocation. A background
+ * thread drains the rings periodically, sorts each drained batch by timestamp and appends it to the file. The
+ * records are therefore in timestamp order within one drained batch only : a record taken late from its ring,
+ * e.g. when the batch was full, can land in the file after later records of other threads. When a ring is full,
+ * because the drainer can't keep up, the record is dropped rather than slowing the caller down : see
+ * {@link #getDroppedCount()}.
+ * <p>
+ * The ring of a thread is released once the thread has terminated and its ring has been drained, so that thread
+ * churn in the traced service doesn't accumulate rings.
+ * <p>
+ * When the file can't be written (e.g. the disk is full), recording stops : the later records are counted as
+ * dropped, and {@link #close()} throws the write failure.
+ * <p>
+ * Keys are traced as the 32 bits of their hash code, so a replay addresses as many distinct keys as the traced
+ * service, not the same keys.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TraceRecorder implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(TraceRecorder.class);
+
+  public static final int DEFAULT_RING_CAPACITY = 8192;
+
+  private static final int MAX_BATCH_BITS = 20;
+  private static final int MAX_BATCH = 1 << MAX_BATCH_BITS;
+
+  private final int ringCapacity;
+  private final long drainPeriodInNs;
+  private final FileChannel channel;
+  private final Queue<Ring> rings = new ConcurrentLinkedQueue<Ring>();
+  private final ThreadLocal<Ring> threadRing;
+  private final AtomicLong dropped = new AtomicLong();
+  private final Thread drainer;
+  private volatile boolean closed;
+  private volatile IOException failure;
+
+  // drainer thread only
+  private final long[] batchTimestamps = new long[MAX_BATCH];
+  private final long[] batchKeys = new long[MAX_BATCH];
+  private final long[] batchMetas = new long[MAX_BATCH];
+  private final long[] batchOrder = new long[MAX_BATCH];
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024 * TraceFile.RECORD_SIZE);
+
+  public TraceRecorder(final File file, final int ringCapacity, final long drainPeriod, final TimeUnit timeUnit) throws IOException {
+    if (Integer.bitCount(ringCapacity) != 1) {
+      throw new IllegalArgumentException("Ring capacity must be a power of 2");
+    }
+    this.ringCapacity = ringCapacity;
+    this.drainPeriodInNs = timeUnit.toNanos(drainPeriod);
+    this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+    ByteBuffer header = ByteBuffer.allocate(TraceFile.HEADER_SIZE);
+    TraceFile.writeHeader(header);
+    header.flip();
+    while (header.hasRemaining()) {
+      channel.write(header);
+    }
+    this.threadRing = ThreadLocal.withInitial(() -> {
+      Ring ring = new Ring(this.ringCapacity, Thread.currentThread());
+      rings.add(ring);
+      return ring;
+    });
+    this.drainer = new Thread(this::drainLoop, "Rainfall-ehcache trace recorder " + file.getName());
+    this.drainer.setDaemon(true);
+    this.drainer.start();
+  }
+
+  public static TraceRecorder toFile(final String file) throws IOException {
+    return new TraceRecorder(new File(file), DEFAULT_RING_CAPACITY, 10, TimeUnit.MILLISECONDS);
+  }
+
+  public void record(final TraceOp op, final Object key, final int valueSize) {
+    if (failure != null || !threadRing.get().offer(System.nanoTime(), key == null ? 0 : key.hashCode() & 0xFFFFFFFFL,
+        ((long)valueSize << 8) | (op.code() & 0xFF))) {
+      dropped.incrementAndGet();
+    }
+  }
+
+  /**
+   * @return number of records dropped because the ring of their thread was full, or the recording failed
+   */
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  private void drainLoop() {
+    try {
+      while (!closed) {
+        if (drain() == 0) {
+          LockSupport.parkNanos(drainPeriodInNs);
+        }
+      }
+      while (drain() > 0) {
+        // final drain
+      }
+    } catch (IOException e) {
+      log.error("Trace recording failed, the next records are dropped", e);
+      failure = e;
+    }
+  }
+
+  private int drain() throws IOException {
+    int count = 0;
+    for (Iterator<Ring> iterator = rings.iterator(); iterator.hasNext(); ) {
+      Ring ring = iterator.next();
+      // checked before draining : a terminated owner can't offer anything after that
+      boolean orphan = !ring.isOwnerAlive();
+      count = ring.drainTo(batchTimestamps, batchKeys, batchMetas, count, MAX_BATCH);
+      if (orphan && ring.isEmpty()) {
+        iterator.remove();
+      }
+    }
+    if (count == 0) {
+      return 0;
+    }
+
+    // sort the batch by timestamp : timestamp delta in the high bits, batch index in the low bits
+    long min = Long.MAX_VALUE;
+    for (int i = 0; i < count; i++) {
+      min = Math.min(min, batchTimestamps[i]);
+    }
+    for (int i = 0; i < count; i++) {
+      batchOrder[i] = ((batchTimestamps[i] - min) << MAX_BATCH_BITS) | i;
+    }
+    Arrays.sort(batchOrder, 0, count);
+
+    for (int i = 0; i < count; i++) {
+      int index = (int)(batchOrder[i] & (MAX_BATCH - 1));
+      if (buffer.remaining() < TraceFile.RECORD_SIZE) {
+        flush();
+      }
+      TraceFile.writeRecord(buffer, batchTimestamps[index], batchKeys[index], (int)(batchMetas[index] >> 8),
+          TraceOp.fromCode((byte)batchMetas[index]));
+    }
+    flush();
+    return count;
+  }
+
+  private void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Stops recording, writes the records left in the rings and closes the file.
+   *
+   * @throws IOException if the file could not be written, during the recording or now
+   */
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    try {
+      drainer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      channel.close();
+    }
+    if (failure != null) {
+      throw new IOException("Trace recording failed, " + dropped.get() + " records were dropped", failure);
+    }
+  }
+
+  /**
+   * Single producer, single consumer ring of records.
+   */
+  static final class Ring {
+
+    private final long[] timestamps;
+    private final long[] keys;
+    private final long[] metas;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final WeakReference<Thread> owner;
+    // producer only
+    private long cachedHead;
+
+    Ring(final int capacity, final Thread owner) {
+      this.timestamps = new long[capacity];
+      this.keys = new long[capacity];
+      this.metas = new long[capacity];
+      this.mask = capacity - 1;
+      this.owner = new WeakReference<Thread>(owner);
+    }
+
+    boolean isOwnerAlive() {
+      Thread thread = owner.get();
+      return thread != null && thread.isAlive();
+    }
+
+    boolean isEmpty() {
+      return head.get() == tail.get();
+    }
+
+    boolean offer(final long timestamp, final long key, final long meta) {
+      long t = tail.get();
+      if (t - cachedHead >= timestamps.length) {
+        cachedHead = head.get();
+        if (t - cachedHead >= timestamps.length) {
+          return false;
+        }
+      }
+      int slot = (int)(t & mask);
+      timestamps[slot] = timestamp;
+      keys[slot] = key;
+      metas[slot] = meta;
+      tail.lazySet(t + 1);
+      return true;
+    }
+
+    int drainTo(final long[] timestamps, final long[] keys, final long[] metas, int count, final int max) {
+      long h = head.get();
+      long t = tail.get();
+      while (h < t && count < max) {
+        int slot = (int)(h & mask);
+        timestamps[count] = this.timestamps[slot];
+        keys[count] = this.keys[slot];
+        metas[count] = this.metas[slot];
+        count++;
+        h++;
+      }
+      head.lazySet(h);
+      return count;
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.trace;
+
+import io.rainfall.statistics.StatisticsHolder;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands out the records of a trace to the threads replaying it, in the trace order, looping over the trace when
+ * it is exhausted.
+ * <p>
+ * Replay is either as fast as possible, or faithful to the timestamps of the trace : a record is then not
+ * replayed before its time relative to the first record, and its latency is measured from that time, so that
+ * the replay doesn't hide the queueing a slow cache causes (Coordinated Omission).
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TraceReplay implements Closeable {
+
+  private final TraceReader reader;
+  private final boolean faithful;
+  private final long firstTimestamp;
+  private final long traceDuration;
+  private final AtomicLong cursor = new AtomicLong();
+  private final AtomicLong replayStart = new AtomicLong(Long.MIN_VALUE);
+
+  public TraceReplay(final TraceReader reader, final boolean faithful) {
+    this.reader = reader;
+    this.faithful = faithful;
+    this.firstTimestamp = reader.timestamp(0);
+    // a looping replay starts the next lap one average interval after the last record
+    long lastInterval = reader.size() > 1 ? (reader.timestamp(reader.size() - 1) - firstTimestamp) / (reader.size() - 1) : 1;
+    this.traceDuration = reader.timestamp(reader.size() - 1) - firstTimestamp + Math.max(1, lastInterval);
+  }
+
+  public static TraceReplay asFastAsPossible(final String traceFile) throws IOException {
+    return new TraceReplay(new TraceReader(new File(traceFile)), false);
+  }
+
+  public static TraceReplay timestampFaithful(final String traceFile) throws IOException {
+    return new TraceReplay(new TraceReader(new File(traceFile)), true);
+  }
+
+  public TraceReader getReader() {
+    return reader;
+  }
+
+  /**
+   * @return the position of the next record to replay, to be passed to {@link #index(long)} and
+   * {@link #awaitScheduledStart(StatisticsHolder, long)}
+   */
+  public long claim() {
+    return cursor.getAndIncrement();
+  }
+
+  /**
+   * @return the index, in the trace, of the record at the given position
+   */
+  public long index(final long position) {
+    return position % reader.size();
+  }
+
+  /**
+   * Waits until the record at the given position is due, when the replay is faithful to the timestamps.
+   *
+   * @return the time at which the record was due, or {@link Long#MAX_VALUE} when replaying as fast as possible
+   */
+  public long awaitScheduledStart(final StatisticsHolder statisticsHolder, final long position) {
+    if (!faithful) {
+      return Long.MAX_VALUE;
+    }
+    long now = statisticsHolder.getTimeInNs();
+    long start = replayStart.get();
+    if (start == Long.MIN_VALUE) {
+      replayStart.compareAndSet(Long.MIN_VALUE, now);
+      start = replayStart.get();
+    }
+    long lap = position / reader.size();
+    long scheduled = start + lap * traceDuration + (reader.timestamp(index(position)) - firstTimestamp);
+    while (now < scheduled) {
+      LockSupport.parkNanos(scheduled - now);
+      now = statisticsHolder.getTimeInNs();
+    }
+    return scheduled;
+  }
+
+  public String getDescription() {
+    return "Replay of " + reader.size() + " records of " + reader.getFile().getName()
+           + (faithful ? ", faithful to the timestamps" : ", as fast as possible");
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.trace;
+
+import io.rainfall.ObjectGenerator;
+
+/**
+ * Creates the values put in the caches when a trace is replayed.
+ *
+ * @author Aurelien Broszniowski
+ */
+public abstract class TraceValues<V> {
+
+  /**
+   * @param keyId     key id of the trace record
+   * @param valueSize value size of the trace record, -1 if it wasn't traced
+   */
+  public abstract V value(long keyId, int valueSize);
+
+  public abstract String getDescription();
+
+  /**
+   * Values from a generator, seeded with the key id, ignoring the traced size.
+   */
+  public static <V> TraceValues<V> generated(final ObjectGenerator<V> valueGenerator) {
+    return new TraceValues<V>() {
+      @Override
+      public V value(final long keyId, final int valueSize) {
+        return valueGenerator.generate(keyId);
+      }
+
+      @Override
+      public String getDescription() {
+        return valueGenerator.getDescription();
+      }
+    };
+  }
+
+  /**
+   * Byte arrays of the traced size, or of the default size when the size wasn't traced.
+   */
+  public static TraceValues<byte[]> byteArrays(final int defaultSize) {
+    return new TraceValues<byte[]>() {
+      @Override
+      public byte[] value(final long keyId, final int valueSize) {
+        byte[] value = new byte[valueSize < 0 ? defaultSize : valueSize];
+        for (int i = 0; i < value.length && i < 8; i++) {
+          value[i] = (byte)(keyId >>> (i * 8));
+        }
+        return value;
+      }
+
+      @Override
+      public String getDescription() {
+        return "byte[] of the traced size";
+      }
+    };
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Paced token bucket : permits are handed out one interval apart, and a thread asking for a permit that is not
+ * available yet is parked until its slot comes.
+ * <p>
+ * The slot of the n-th permit is computed from n, to the nanosecond, instead of adding up an interval rounded to
+ * the nanosecond, which would hand out the permits faster than the rate when a second isn't a multiple of the rate.
+ * <p>
+ * Unused permits are only kept for a short time, so that an idle period is not followed by a burst, while still
+ * letting the threads catch up with the park granularity of the OS.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class RateLimiter {
+
+  private static final long MAX_BURST_IN_NS = MILLISECONDS.toNanos(10);
+  private static final long NS_PER_SECOND = SECONDS.toNanos(1);
+
+  private final long permitsPerSecond;
+  private final long origin;
+  private final AtomicLong nextFreePermit = new AtomicLong();
+
+  /**
+   * @param permitsPerSecond rate, up to {@link Integer#MAX_VALUE} permits per second
+   */
+  public RateLimiter(final long permitsPerSecond) {
+    if (permitsPerSecond <= 0) {
+      throw new IllegalArgumentException("Rate limit must be strictly positive");
+    }
+    if (permitsPerSecond > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Rate limit must be at most " + Integer.MAX_VALUE + " per second");
+    }
+    this.permitsPerSecond = permitsPerSecond;
+    this.origin = System.nanoTime();
+  }
+
+  public void acquire() {
+    long now = System.nanoTime();
+    long oldestUnusedPermit = permitAt(now - MAX_BURST_IN_NS - origin);
+    long permit;
+    while (true) {
+      long next = nextFreePermit.get();
+      permit = Math.max(next, oldestUnusedPermit);
+      if (nextFreePermit.compareAndSet(next, permit + 1)) {
+        break;
+      }
+    }
+
+    long slot = origin + slotOf(permit);
+    long waitInNs = slot - now;
+    while (waitInNs > 0) {
+      LockSupport.parkNanos(this, waitInNs);
+      waitInNs = slot - System.nanoTime();
+    }
+  }
+
+  /**
+   * @return time of the slot of the permit, in ns from the origin
+   */
+  private long slotOf(final long permit) {
+    return (permit / permitsPerSecond) * NS_PER_SECOND + (permit % permitsPerSecond) * NS_PER_SECOND / permitsPerSecond;
+  }
+
+  /**
+   * @return first permit whose slot is not before the time, in ns from the origin
+   */
+  private long permitAt(final long timeInNs) {
+    if (timeInNs <= 0) {
+      return 0;
+    }
+    long permit = (timeInNs / NS_PER_SECOND) * permitsPerSecond + (timeInNs % NS_PER_SECOND) * permitsPerSecond / NS_PER_SECOND;
+    return slotOf(permit) < timeInNs ? permit + 1 : permit;
+  }
+
+  public long getPermitsPerSecond() {
+    return permitsPerSecond;
+  }
+}
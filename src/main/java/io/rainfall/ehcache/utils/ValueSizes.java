@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.rainfall.ehcache.utils;
+
+/**
+ * Size of the values generated for a cache, as far as it can be told without serializing them.
+ *
+ * @author Aurelien Broszniowski
+ */
+public final class ValueSizes {
+
+  private ValueSizes() {
+  }
+
+  /**
+   * @return the length of byte arrays, the UTF-8 encoded length of char sequences, -1 for anything else
+   */
+  public static int valueSize(final Object value) {
+    if (value instanceof byte[]) {
+      return ((byte[])value).length;
+    } else if (value instanceof CharSequence) {
+      return utf8Length((CharSequence)value);
+    }
+    return -1;
+  }
+
+  // counted without encoding, a valid surrogate pair is one 4 bytes code point, a lone surrogate is replaced by '?'
+  private static int utf8Length(final CharSequence chars) {
+    int length = chars.length();
+    int bytes = length;
+    for (int i = 0; i < length; i++) {
+      char c = chars.charAt(i);
+      if (c >= 0x800) {
+        if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars.charAt(i + 1))) {
+          bytes += 2;
+          i++;
+        } else if (!Character.isSurrogate(c)) {
+          bytes += 2;
+        }
+      } else if (c >= 0x80) {
+        bytes++;
+      }
+    }
+    return bytes;
+  }
+}
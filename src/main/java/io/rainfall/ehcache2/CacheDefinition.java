@@ -16,6 +16,9 @@
 
 package io.rainfall.ehcache2;
 
+import io.rainfall.ehcache.statistics.HarnessFloor;
+import io.rainfall.ehcache.statistics.HarnessFloors;
+import io.rainfall.statistics.StatisticsHolder;
 import net.sf.ehcache.Ehcache;
 
 /**
@@ -24,7 +27,7 @@ import net.sf.ehcache.Ehcache;
 
 public class CacheDefinition {
 
-  private String name;
+  private final String name;
   private Ehcache cache;
 
   public CacheDefinition(final String name, final Ehcache cache) {
@@ -36,6 +39,37 @@ public class CacheDefinition {
     return new CacheDefinition(name, cache);
   }
 
+  /**
+   * Baseline definition over a {@link NullEhcache} : running the scenario against it reports the harness floor
+   * (latency and throughput) under its own name, alongside the real caches
+   * <p>
+   * The latencies recorded under its name are the part of the harness inside the measured window. The time between
+   * two records of the same operation thread, i.e. the whole exec path on a no-op cache (sequence and key
+   * generation, operation selection, recording...), is recorded under its name followed by "-exec". That one is
+   * only meaningful when the baseline is the only cache of the scenario, in a closed-loop execution where the threads
+   * don't wait between operations.
+   */
+  public static CacheDefinition nullCache(String name) {
+    return new Baseline(name, new NullEhcache(name));
+  }
+
+  /**
+   * Subtracts the median latency measured by the baseline, for the same result type, from the latencies recorded
+   * for this cache. Only the floor inside the measured window is subtracted, the rest of the exec path is not part
+   * of the recorded latencies. The baseline must be run in the same scenario, e.g. as the first cache of the list.
+   * Until the baseline has taken {@link HarnessFloor#WARMUP_SAMPLES} samples of a result type, the operations with
+   * that result are recorded unchanged under the name of this cache followed by "-unfloored".
+   *
+   * @param baseline definition created by {@link #nullCache(String)}
+   * @return a new definition of the same cache and name, to use instead of this one
+   */
+  public CacheDefinition minusHarnessFloor(CacheDefinition baseline) {
+    if (!(baseline instanceof Baseline)) {
+      throw new IllegalArgumentException("Cache definition " + baseline.getName() + " is not a null cache baseline");
+    }
+    return new Floored(name, cache, ((Baseline)baseline).floors);
+  }
+
   public String getName() {
     return name;
   }
@@ -43,4 +77,75 @@ public class CacheDefinition {
   public Ehcache getCache() {
     return cache;
   }
+
+  /**
+   * Replaces the cache, e.g. with a cache of another size between two runs.
+   */
+  public void replaceCache(final Ehcache cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * Records the result of an operation on this cache.
+   * <p>
+   * rainfall-core only records by cache name, so every record still looks the name up in the statistics holder,
+   * there is no per-result slot to resolve ahead of the run. This method is the single point where the operations
+   * record, which the harness floor definitions override.
+   */
+  public void record(final StatisticsHolder statisticsHolder, final long latencyInNs, final Enum result) {
+    statisticsHolder.record(name, latencyInNs, result);
+  }
+
+  /**
+   * Null cache whose latencies are the harness floor.
+   */
+  private static final class Baseline extends CacheDefinition {
+
+    private final HarnessFloors floors = new HarnessFloors();
+    private final String execName;
+    private final ThreadLocal<long[]> lastRecordTime = ThreadLocal.withInitial(() -> new long[1]);
+
+    Baseline(final String name, final Ehcache cache) {
+      super(name, cache);
+      this.execName = name + "-exec";
+    }
+
+    @Override
+    public void record(final StatisticsHolder statisticsHolder, final long latencyInNs, final Enum result) {
+      floors.of(result).sample(latencyInNs);
+      super.record(statisticsHolder, latencyInNs, result);
+      long now = statisticsHolder.getTimeInNs();
+      long[] last = lastRecordTime.get();
+      if (last[0] != 0) {
+        statisticsHolder.record(execName, now - last[0], result);
+      }
+      last[0] = now;
+    }
+  }
+
+  /**
+   * Cache whose latencies are recorded minus the harness floor of their result type, or under the unfloored name
+   * until that floor has converged.
+   */
+  private static final class Floored extends CacheDefinition {
+
+    private final HarnessFloors floors;
+    private final String unflooredName;
+
+    Floored(final String name, final Ehcache cache, final HarnessFloors floors) {
+      super(name, cache);
+      this.floors = floors;
+      this.unflooredName = name + "-unfloored";
+    }
+
+    @Override
+    public void record(final StatisticsHolder statisticsHolder, final long latencyInNs, final Enum result) {
+      HarnessFloor floor = floors.of(result);
+      if (floor.isConverged()) {
+        super.record(statisticsHolder, floor.subtractFrom(latencyInNs), result);
+      } else {
+        statisticsHolder.record(unflooredName, latencyInNs, result);
+      }
+    }
+  }
 }
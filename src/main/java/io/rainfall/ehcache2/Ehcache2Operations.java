@@ -23,6 +23,11 @@ import io.rainfall.deprecated.ehcache2.operation.GetOperation;
 import io.rainfall.deprecated.ehcache2.operation.PutIfAbsentOperation;
 import io.rainfall.deprecated.ehcache2.operation.PutOperation;
 import io.rainfall.deprecated.ehcache2.operation.RemoveOperation;
+import io.rainfall.ehcache.execution.PartitionedPrefill;
+import io.rainfall.ehcache.operation.FanOut;
+import io.rainfall.ehcache.statistics.Instruments;
+import io.rainfall.ehcache.trace.TraceReplay;
+import io.rainfall.ehcache.trace.TraceValues;
 
 /**
  * Contains the helper methods to instantiate the Ehcache {@link io.rainfall.Operation} objects.
@@ -41,6 +46,12 @@ public class Ehcache2Operations {
     return new io.rainfall.ehcache2.operation.PutOperation<K, V>(keyGenerator, valueGenerator, sequenceGenerator, cacheDefinitions);
   }
 
+  public static <K, V> Operation put(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
+                                     final SequenceGenerator sequenceGenerator, final Iterable<CacheDefinition> cacheDefinitions,
+                                     final FanOut fanOut) {
+    return new io.rainfall.ehcache2.operation.FanOutPutOperation<K, V>(keyGenerator, valueGenerator, sequenceGenerator, cacheDefinitions, fanOut);
+  }
+
   @Deprecated
   public static <K, V> GetOperation<K, V> get(Class<K> keyClass, Class<V> valueClass) {
     return new io.rainfall.deprecated.ehcache2.operation.GetOperation<K, V>();
@@ -51,6 +62,12 @@ public class Ehcache2Operations {
     return new io.rainfall.ehcache2.operation.GetOperation<K, V>(keyGenerator, sequenceGenerator, cacheDefinitions);
   }
 
+  public static <K, V> Operation get(final ObjectGenerator<K> keyGenerator,
+                                     final SequenceGenerator sequenceGenerator, final Iterable<CacheDefinition> cacheDefinitions,
+                                     final FanOut fanOut) {
+    return new io.rainfall.ehcache2.operation.FanOutGetOperation<K, V>(keyGenerator, sequenceGenerator, cacheDefinitions, fanOut);
+  }
+
   @Deprecated
   public static <K, V> RemoveOperation<K, V> remove(Class<K> keyClass, Class<V> valueClass) {
     return new io.rainfall.deprecated.ehcache2.operation.RemoveOperation<K, V>();
@@ -71,5 +88,25 @@ public class Ehcache2Operations {
     return new io.rainfall.ehcache2.operation.PutIfAbsentOperation<K, V>(keyGenerator, valueGenerator, sequenceGenerator, cacheDefinitions);
   }
 
+  public static <K, V> Operation replay(final ObjectGenerator<K> keyGenerator, final TraceValues<V> values,
+                                        final TraceReplay replay, final Iterable<CacheDefinition> cacheDefinitions) {
+    return new io.rainfall.ehcache2.operation.TraceReplayOperation<K, V>(keyGenerator, values, replay, cacheDefinitions);
+  }
+
+  public static <K, V> PartitionedPrefill.Loader prefillLoader(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
+                                                               final Iterable<CacheDefinition> cacheDefinitions) {
+    return new io.rainfall.ehcache2.operation.PrefillLoader<K, V>(keyGenerator, valueGenerator, cacheDefinitions);
+  }
 
+  public static <K, V> Operation allocationMeasuredGet(final ObjectGenerator<K> keyGenerator,
+                                                       final SequenceGenerator sequenceGenerator, final Iterable<CacheDefinition> cacheDefinitions,
+                                                       final Instruments instruments) {
+    return new io.rainfall.ehcache2.operation.AllocationMeasuredGetOperation<K, V>(keyGenerator, sequenceGenerator, cacheDefinitions, instruments);
+  }
+
+  public static <K, V> Operation allocationMeasuredPut(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
+                                                       final SequenceGenerator sequenceGenerator, final Iterable<CacheDefinition> cacheDefinitions,
+                                                       final Instruments instruments) {
+    return new io.rainfall.ehcache2.operation.AllocationMeasuredPutOperation<K, V>(keyGenerator, valueGenerator, sequenceGenerator, cacheDefinitions, instruments);
+  }
 }
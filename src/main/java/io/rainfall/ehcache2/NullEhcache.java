@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache2;
+
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.Configuration;
+import net.sf.ehcache.constructs.EhcacheDecoratorAdapter;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * No-op stand-in for an Ehcache 2 {@link net.sf.ehcache.Ehcache} : nothing is stored, every read misses.
+ * <p>
+ * Running the operations against it measures the part of the harness that falls inside the measured window, i.e.
+ * the clock reads and the call through the cache interface, see {@link CacheDefinition#nullCache(String)}. Key
+ * and value generation and the recording happen outside of that window, the baseline definition reports the whole
+ * exec path separately.
+ * <p>
+ * Only the data access methods are no-op, the other ones (statistics, status, key lookups...) are delegated to an
+ * empty cache, alive in a private {@link CacheManager} which is shut down by {@link #dispose()}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class NullEhcache extends EhcacheDecoratorAdapter {
+
+  private static final AtomicInteger managerIds = new AtomicInteger();
+
+  private final CacheManager manager;
+
+  public NullEhcache(final String name) {
+    this(name, new CacheManager(new Configuration()
+        .name("rainfall-null-" + name + "-" + managerIds.incrementAndGet())
+        .updateCheck(false)));
+  }
+
+  private NullEhcache(final String name, final CacheManager manager) {
+    super(alive(name, manager));
+    this.manager = manager;
+  }
+
+  private static Cache alive(final String name, final CacheManager manager) {
+    Cache cache = new Cache(new CacheConfiguration(name, 1).eternal(true));
+    manager.addCache(cache);
+    return cache;
+  }
+
+  @Override
+  public Element get(final Object key) {
+    return null;
+  }
+
+  @Override
+  public Element get(final Serializable key) {
+    return null;
+  }
+
+  @Override
+  public void put(final Element element) {
+  }
+
+  @Override
+  public void put(final Element element, final boolean doNotNotifyCacheReplicators) {
+  }
+
+  @Override
+  public void putAll(final Collection<Element> elements) {
+  }
+
+  @Override
+  public void putQuiet(final Element element) {
+  }
+
+  @Override
+  public void putWithWriter(final Element element) {
+  }
+
+  @Override
+  public Element putIfAbsent(final Element element) {
+    return null;
+  }
+
+  @Override
+  public Element putIfAbsent(final Element element, final boolean doNotNotifyCacheReplicators) {
+    return null;
+  }
+
+  @Override
+  public boolean remove(final Object key) {
+    return false;
+  }
+
+  @Override
+  public boolean remove(final Serializable key) {
+    return false;
+  }
+
+  @Override
+  public boolean remove(final Object key, final boolean doNotNotifyCacheReplicators) {
+    return false;
+  }
+
+  @Override
+  public boolean remove(final Serializable key, final boolean doNotNotifyCacheReplicators) {
+    return false;
+  }
+
+  @Override
+  public boolean removeElement(final Element element) {
+    return false;
+  }
+
+  @Override
+  public Element replace(final Element element) {
+    return null;
+  }
+
+  @Override
+  public boolean replace(final Element old, final Element element) {
+    return false;
+  }
+
+  @Override
+  public int getSize() {
+    return 0;
+  }
+
+  @Override
+  public void dispose() {
+    manager.shutdown();
+  }
+}
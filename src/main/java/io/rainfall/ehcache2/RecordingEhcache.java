@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache2;
+
+import io.rainfall.ehcache.trace.TraceOp;
+import io.rainfall.ehcache.trace.TraceRecorder;
+import net.sf.ehcache.CacheException;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.constructs.EhcacheDecoratorAdapter;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+
+import static io.rainfall.ehcache.utils.ValueSizes.valueSize;
+
+/**
+ * Ehcache 2 {@link Ehcache} decorator recording the accesses to the cache into an access trace, see
+ * {@link TraceRecorder}. Bulk operations are recorded as one record per key.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class RecordingEhcache extends EhcacheDecoratorAdapter {
+
+  private final TraceRecorder recorder;
+
+  public RecordingEhcache(final Ehcache underlyingCache, final TraceRecorder recorder) {
+    super(underlyingCache);
+    this.recorder = recorder;
+  }
+
+  @Override
+  public Element get(final Object key) throws IllegalStateException, CacheException {
+    recorder.record(TraceOp.GET, key, -1);
+    return super.get(key);
+  }
+
+  @Override
+  public Element get(final Serializable key) throws IllegalStateException, CacheException {
+    recorder.record(TraceOp.GET, key, -1);
+    return super.get(key);
+  }
+
+  @Override
+  public Map<Object, Element> getAll(final Collection<?> keys) throws IllegalStateException, CacheException {
+    for (Object key : keys) {
+      recorder.record(TraceOp.GET_ALL, key, -1);
+    }
+    return super.getAll(keys);
+  }
+
+  @Override
+  public void put(final Element element) throws IllegalArgumentException, IllegalStateException, CacheException {
+    recordPut(TraceOp.PUT, element);
+    super.put(element);
+  }
+
+  @Override
+  public void put(final Element element, final boolean doNotNotifyCacheReplicators) throws IllegalArgumentException, IllegalStateException, CacheException {
+    recordPut(TraceOp.PUT, element);
+    super.put(element, doNotNotifyCacheReplicators);
+  }
+
+  @Override
+  public void putAll(final Collection<Element> elements) throws IllegalArgumentException, IllegalStateException, CacheException {
+    for (Element element : elements) {
+      recordPut(TraceOp.PUT_ALL, element);
+    }
+    super.putAll(elements);
+  }
+
+  @Override
+  public Element putIfAbsent(final Element element) throws NullPointerException {
+    recordPut(TraceOp.PUT_IF_ABSENT, element);
+    return super.putIfAbsent(element);
+  }
+
+  @Override
+  public Element putIfAbsent(final Element element, final boolean doNotNotifyCacheReplicators) throws NullPointerException {
+    recordPut(TraceOp.PUT_IF_ABSENT, element);
+    return super.putIfAbsent(element, doNotNotifyCacheReplicators);
+  }
+
+  @Override
+  public boolean remove(final Object key) throws IllegalStateException {
+    recorder.record(TraceOp.REMOVE, key, -1);
+    return super.remove(key);
+  }
+
+  @Override
+  public boolean remove(final Object key, final boolean doNotNotifyCacheReplicators) throws IllegalStateException {
+    recorder.record(TraceOp.REMOVE, key, -1);
+    return super.remove(key, doNotNotifyCacheReplicators);
+  }
+
+  @Override
+  public boolean remove(final Serializable key) throws IllegalStateException {
+    recorder.record(TraceOp.REMOVE, key, -1);
+    return super.remove(key);
+  }
+
+  @Override
+  public boolean remove(final Serializable key, final boolean doNotNotifyCacheReplicators) throws IllegalStateException {
+    recorder.record(TraceOp.REMOVE, key, -1);
+    return super.remove(key, doNotNotifyCacheReplicators);
+  }
+
+  @Override
+  public void removeAll(final Collection<?> keys) throws IllegalStateException {
+    for (Object key : keys) {
+      recorder.record(TraceOp.REMOVE_ALL, key, -1);
+    }
+    super.removeAll(keys);
+  }
+
+  @Override
+  public void removeAll(final Collection<?> keys, final boolean doNotNotifyCacheReplicators) throws IllegalStateException {
+    for (Object key : keys) {
+      recorder.record(TraceOp.REMOVE_ALL, key, -1);
+    }
+    super.removeAll(keys, doNotNotifyCacheReplicators);
+  }
+
+  @Override
+  public boolean removeElement(final Element element) throws NullPointerException {
+    recorder.record(TraceOp.REMOVE, element.getObjectKey(), -1);
+    return super.removeElement(element);
+  }
+
+  @Override
+  public Element replace(final Element element) throws NullPointerException {
+    recordPut(TraceOp.REPLACE, element);
+    return super.replace(element);
+  }
+
+  @Override
+  public boolean replace(final Element old, final Element element) throws NullPointerException, IllegalArgumentException {
+    recordPut(TraceOp.REPLACE, element);
+    return super.replace(old, element);
+  }
+
+  private void recordPut(final TraceOp op, final Element element) {
+    if (element != null) {
+      recorder.record(op, element.getObjectKey(), valueSize(element.getObjectValue()));
+    }
+  }
+}
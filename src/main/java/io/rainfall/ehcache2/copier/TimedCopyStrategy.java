@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache2.copier;
+
+import io.rainfall.ehcache.statistics.Instruments;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CopyStrategyConfiguration;
+import net.sf.ehcache.store.compound.ReadWriteCopyStrategy;
+import net.sf.ehcache.store.compound.ReadWriteSerializationCopyStrategy;
+import org.HdrHistogram.Histogram;
+
+import static io.rainfall.ehcache.statistics.Instruments.Unit.NANOSECONDS;
+
+/**
+ * Ehcache 2 copy strategy decorator measuring the cost of copyOnRead and copyOnWrite.
+ * <p>
+ * The cache must be configured with copyOnRead and/or copyOnWrite and with the {@link #configuration()} of the
+ * strategy. The copy times are registered in the {@link Instruments}, in ns, under its name followed by
+ * "-copy-for-read" and "-copy-for-write".
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TimedCopyStrategy implements ReadWriteCopyStrategy<Element> {
+
+  private static final long serialVersionUID = 1L;
+
+  private final ReadWriteCopyStrategy<Element> delegate;
+  private final Histogram readCopyTimes;
+  private final Histogram writeCopyTimes;
+
+  public TimedCopyStrategy(final ReadWriteCopyStrategy<Element> delegate, final Instruments instruments, final String name) {
+    this.delegate = delegate;
+    this.readCopyTimes = instruments.register(name + "-copy-for-read", NANOSECONDS);
+    this.writeCopyTimes = instruments.register(name + "-copy-for-write", NANOSECONDS);
+  }
+
+  public static TimedCopyStrategy timed(final ReadWriteCopyStrategy<Element> delegate, final Instruments instruments,
+                                        final String name) {
+    return new TimedCopyStrategy(delegate, instruments, name);
+  }
+
+  /**
+   * Copies the elements through serialization, as Ehcache 2 does by default.
+   */
+  public static TimedCopyStrategy serialization(final Instruments instruments, final String name) {
+    return new TimedCopyStrategy(new ReadWriteSerializationCopyStrategy(), instruments, name);
+  }
+
+  /**
+   * @return the configuration to add to the cache configuration, with
+   * {@link net.sf.ehcache.config.CacheConfiguration#addCopyStrategy(CopyStrategyConfiguration)}
+   */
+  public CopyStrategyConfiguration configuration() {
+    CopyStrategyConfiguration configuration = new CopyStrategyConfiguration();
+    configuration.setCopyStrategyInstance(this);
+    return configuration;
+  }
+
+  @Override
+  public Element copyForWrite(final Element value, final ClassLoader loader) {
+    long start = System.nanoTime();
+    Element copy = delegate.copyForWrite(value, loader);
+    long end = System.nanoTime();
+    writeCopyTimes.recordValue(end - start);
+    return copy;
+  }
+
+  @Override
+  public Element copyForRead(final Element storedValue, final ClassLoader loader) {
+    long start = System.nanoTime();
+    Element copy = delegate.copyForRead(storedValue, loader);
+    long end = System.nanoTime();
+    readCopyTimes.recordValue(end - start);
+    return copy;
+  }
+}
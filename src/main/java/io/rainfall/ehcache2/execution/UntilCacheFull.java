@@ -21,25 +21,56 @@ import io.rainfall.Configuration;
 import io.rainfall.Execution;
 import io.rainfall.Scenario;
 import io.rainfall.TestException;
-import io.rainfall.WeightedOperation;
 import io.rainfall.configuration.ConcurrencyConfig;
+import io.rainfall.ehcache.execution.OperationThreads;
 import io.rainfall.ehcache2.CacheConfig;
 import io.rainfall.statistics.StatisticsHolder;
-import io.rainfall.utils.RangeMap;
 import net.sf.ehcache.Ehcache;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
+ * Runs the scenario until all the caches are full.
+ * <p>
+ * The fullness check is done by a single background sampler : a cache is considered full when, for a number of
+ * consecutive samples, either its size stopped growing or its eviction count went up. The operation threads only
+ * read a volatile flag, so they don't pay for the size computation of large caches.
+ *
  * @author Aurelien Broszniowski
  */
 public class UntilCacheFull extends Execution {
+
+  private final long periodInNs;
+  private final int stableSamples;
+  private volatile boolean cachesAreFull;
+
+  public UntilCacheFull() {
+    this(1, SECONDS, 3);
+  }
+
+  /**
+   * @param period time between two samples of the cache sizes
+   * @param stableSamples number of consecutive samples in which a cache must look full
+   */
+  public UntilCacheFull(final long period, final TimeUnit timeUnit, final int stableSamples) {
+    if (period <= 0) {
+      throw new IllegalArgumentException("Sampling period must be strictly positive");
+    }
+    if (stableSamples <= 0) {
+      throw new IllegalArgumentException("Number of stable samples must be strictly positive");
+    }
+    this.periodInNs = timeUnit.toNanos(period);
+    this.stableSamples = stableSamples;
+  }
+
   @Override
   public <E extends Enum<E>> void execute(final StatisticsHolder<E> statisticsHolder, final Scenario scenario, final Map<Class<? extends Configuration>, Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
@@ -47,68 +78,88 @@ public class UntilCacheFull extends Execution {
 
     markExecutionState(scenario, ExecutionState.BEGINNING);
 
-    final Map<String, ExecutorService> executors = concurrencyConfig.createFixedExecutorService();
-    for (final String threadpoolName : executors.keySet()) {
-      final int threadCount = concurrencyConfig.getThreadCount(threadpoolName);
-      final ExecutorService executor = executors.get(threadpoolName);
-
-      CacheConfig cachesConfig = (CacheConfig)configurations.get(CacheConfig.class);
-      final List<Ehcache> caches = cachesConfig.getCaches();
-      final Map<String, Integer> sizes = new HashMap<String, Integer>();
-      for (Ehcache cache : caches) {
-        sizes.put(cache.getName(), Integer.MIN_VALUE);
+    CacheConfig cachesConfig = (CacheConfig)configurations.get(CacheConfig.class);
+    final List<Ehcache> caches = cachesConfig.getCaches();
+    cachesAreFull = false;
+    final FullnessSampler fullnessSampler = new FullnessSampler(caches);
+    ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "Rainfall-ehcache cache full sampler");
+      thread.setDaemon(true);
+      return thread;
+    });
+    sampler.scheduleAtFixedRate(() -> {
+      try {
+        if (fullnessSampler.sample()) {
+          cachesAreFull = true;
+        }
+      } catch (RuntimeException e) {
+        // a failed sample cancels the sampling, don't leave the operation threads running forever
+        cachesAreFull = true;
+        throw e;
       }
+    }, periodInNs, periodInNs, NANOSECONDS);
 
-      for (int threadNb = 0; threadNb < threadCount; threadNb++) {
-        final int finalThreadNb = threadNb;
-        executor.submit((Callable)() -> {
-          Thread.currentThread().setName("Rainfall-core Operations Thread - " + finalThreadNb);
-          RangeMap<WeightedOperation> operations = scenario.getOperations().get(threadpoolName);
-
-          while (!cachesAreFull(sizes, caches)) {
-            operations.getNextRandom(weightRnd)
-                .getOperation().exec(statisticsHolder, configurations, assertions);
-          }
-          return null;
-        });
+    final Map<String, ExecutorService> executors = concurrencyConfig.createFixedExecutorService();
+    OperationThreads.submit(executors, concurrencyConfig, scenario, (threadIndex, operations) -> {
+      while (!cachesAreFull) {
+        operations.getNextRandom(weightRnd)
+            .getOperation().exec(statisticsHolder, configurations, assertions);
       }
-    }
+    });
     //TODO : it is submitted enough but not everything has finished to run when threads are done -> how to solve Coordinated Omission ?
 
     markExecutionState(scenario, ExecutionState.ENDING);
-    for (ExecutorService executor : executors.values()) {
-      executor.shutdown();
-    }
     try {
-      boolean success = true;
-      for (ExecutorService executor : executors.values()) {
-        boolean executorSuccess = executor.awaitTermination(60, SECONDS);
-        if (!executorSuccess) {
-          executor.shutdownNow();
-          success &= executor.awaitTermination(60, SECONDS);
-        }
-      }
-
-      if (!success) {
-        throw new TestException("Execution of Scenario timed out.");
-      }
-    } catch (InterruptedException e) {
-      throw new TestException("Execution of Scenario didn't stop correctly.", e);
+      OperationThreads.awaitTermination(executors, SECONDS.toNanos(60));
+    } finally {
+      sampler.shutdownNow();
     }
   }
 
   @Override
   public String toString() {
-    return "Execution : until caches are full";
+    return "Execution : until caches are full (size stable or evicting for " + stableSamples + " samples, every "
+           + NANOSECONDS.toMillis(periodInNs) + " ms)";
   }
 
-  private boolean cachesAreFull(final Map<String, Integer> sizes, final List<Ehcache> caches) {
-    boolean allCachesAreFull = true;
-    for (Ehcache cache : caches) {
-      allCachesAreFull &= (cache.getStatistics().getSize() == sizes.get(cache.getName()));
-      sizes.put(cache.getName(), cache.getSize());
+  /**
+   * Only used from the sampler thread.
+   */
+  private final class FullnessSampler {
+
+    private final List<Ehcache> caches;
+    private final long[] sizes;
+    private final long[] evictions;
+    private final int[] fullSamples;
+
+    FullnessSampler(final List<Ehcache> caches) {
+      this.caches = caches;
+      this.sizes = new long[caches.size()];
+      this.evictions = new long[caches.size()];
+      this.fullSamples = new int[caches.size()];
+      for (int i = 0; i < caches.size(); i++) {
+        sizes[i] = Long.MIN_VALUE;
+        evictions[i] = caches.get(i).getStatistics().cacheEvictedCount();
+      }
+    }
+
+    boolean sample() {
+      boolean allCachesAreFull = true;
+      for (int i = 0; i < caches.size(); i++) {
+        Ehcache cache = caches.get(i);
+        long size = cache.getStatistics().getSize();
+        long evicted = cache.getStatistics().cacheEvictedCount();
+        if (size <= sizes[i] || evicted > evictions[i]) {
+          fullSamples[i]++;
+        } else {
+          fullSamples[i] = 0;
+        }
+        sizes[i] = size;
+        evictions[i] = evicted;
+        allCachesAreFull &= (fullSamples[i] >= stableSamples);
+      }
+      return allCachesAreFull;
     }
-    return allCachesAreFull;
   }
 }
 
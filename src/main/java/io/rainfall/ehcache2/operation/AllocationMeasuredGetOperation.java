@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache2.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.ObjectGenerator;
+import io.rainfall.SequenceGenerator;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.execution.ScheduledStart;
+import io.rainfall.ehcache.statistics.Instruments;
+import io.rainfall.ehcache.statistics.ThreadAllocation;
+import io.rainfall.ehcache2.CacheDefinition;
+import io.rainfall.statistics.StatisticsHolder;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
+import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
+import static io.rainfall.ehcache.statistics.Instruments.Unit.BYTES;
+
+/**
+ * Execute and measure a Ehcache get operation, and the bytes allocated by the cache to serve it, e.g. by
+ * copyOnRead (see {@link io.rainfall.ehcache2.copier.TimedCopyStrategy}).
+ * <p>
+ * The allocated bytes of the hits and of the misses are registered in the {@link Instruments} under the name of
+ * the cache followed by "-get-allocated-bytes" and "-miss-allocated-bytes". Generating the key is not counted.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class AllocationMeasuredGetOperation<K, V> extends GetOperation<K, V> {
+
+  private final List<Histogram> hitAllocations = new ArrayList<Histogram>();
+  private final List<Histogram> missAllocations = new ArrayList<Histogram>();
+
+  public AllocationMeasuredGetOperation(final ObjectGenerator<K> keyGenerator, final SequenceGenerator sequenceGenerator,
+                                        final Iterable<CacheDefinition> cacheDefinitions,
+                                        final Instruments instruments) {
+    super(keyGenerator, sequenceGenerator, cacheDefinitions);
+    for (CacheDefinition cacheDefinition : cacheDefinitions) {
+      hitAllocations.add(instruments.register(cacheDefinition.getName() + "-get-allocated-bytes", BYTES));
+      missAllocations.add(instruments.register(cacheDefinition.getName() + "-miss-allocated-bytes", BYTES));
+    }
+  }
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
+      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    final long next = this.sequenceGenerator.next();
+    int i = 0;
+    for (final CacheDefinition cacheDefinition : cacheDefinitions) {
+      Ehcache cache = cacheDefinition.getCache();
+      Element value;
+      Object k = keyGenerator.generate(next);
+
+      long allocatedBytes = ThreadAllocation.allocatedBytes();
+      long start = ScheduledStart.getTimeInNs(statisticsHolder);
+      try {
+        value = cache.get(k);
+        long end = statisticsHolder.getTimeInNs();
+        long allocated = ThreadAllocation.since(allocatedBytes);
+        if (value == null) {
+          cacheDefinition.record(statisticsHolder, (end - start), MISS);
+          missAllocations.get(i).recordValue(allocated);
+        } else {
+          cacheDefinition.record(statisticsHolder, (end - start), GET);
+          hitAllocations.get(i).recordValue(allocated);
+        }
+      } catch (Exception e) {
+        long end = statisticsHolder.getTimeInNs();
+        cacheDefinition.record(statisticsHolder, (end - start), EXCEPTION);
+      }
+      i++;
+    }
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = super.getDescription();
+    desc.add("Bytes allocated per get measured");
+    return desc;
+  }
+}
@@ -22,6 +22,7 @@ import io.rainfall.ObjectGenerator;
 import io.rainfall.Operation;
 import io.rainfall.SequenceGenerator;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.execution.ScheduledStart;
 import io.rainfall.ehcache2.CacheDefinition;
 import io.rainfall.statistics.StatisticsHolder;
 import net.sf.ehcache.Ehcache;
@@ -42,9 +43,9 @@ import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
  */
 public class GetOperation<K, V>  implements Operation {
 
-  private final ObjectGenerator<K> keyGenerator;
-  private final SequenceGenerator sequenceGenerator;
-  private final Iterable<CacheDefinition> cacheDefinitions;
+  protected final ObjectGenerator<K> keyGenerator;
+  protected final SequenceGenerator sequenceGenerator;
+  protected final Iterable<CacheDefinition> cacheDefinitions;
 
   public GetOperation(final ObjectGenerator<K> keyGenerator, final SequenceGenerator sequenceGenerator,
                       final Iterable<CacheDefinition> cacheDefinitions) {
@@ -63,18 +64,18 @@ public class GetOperation<K, V>  implements Operation {
       Element value;
       Object k = keyGenerator.generate(next);
 
-      long start = statisticsHolder.getTimeInNs();
+      long start = ScheduledStart.getTimeInNs(statisticsHolder);
       try {
         value = cache.get(k);
         long end = statisticsHolder.getTimeInNs();
         if (value == null) {
-          statisticsHolder.record(cacheDefinition.getName(), (end - start), MISS);
+          cacheDefinition.record(statisticsHolder, (end - start), MISS);
         } else {
-          statisticsHolder.record(cacheDefinition.getName(), (end - start), GET);
+          cacheDefinition.record(statisticsHolder, (end - start), GET);
         }
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheDefinition.getName(), (end - start), EXCEPTION);
+        cacheDefinition.record(statisticsHolder, (end - start), EXCEPTION);
       }
     }
   }
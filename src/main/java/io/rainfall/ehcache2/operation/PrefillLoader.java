@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache2.operation;
+
+import io.rainfall.ObjectGenerator;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.execution.PartitionedPrefill;
+import io.rainfall.ehcache.generator.BatchSequence;
+import io.rainfall.ehcache2.CacheDefinition;
+import io.rainfall.statistics.StatisticsHolder;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUTALL;
+import static io.rainfall.ehcache.utils.ValueSizes.valueSize;
+
+/**
+ * Loads contiguous batches of keys into Ehcache 2 caches with putAll, for a {@link PartitionedPrefill}. The
+ * latency of each putAll is recorded per key.
+ * <p>
+ * A failed putAll is recorded as an exception for each of its keys, then fails the prefill partition.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class PrefillLoader<K, V> implements PartitionedPrefill.Loader {
+
+  private final ObjectGenerator<K> keyGenerator;
+  private final ObjectGenerator<V> valueGenerator;
+  private final BatchSequence batchSequence = BatchSequence.contiguous();
+  private final Iterable<CacheDefinition> cacheDefinitions;
+
+  public PrefillLoader(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
+                       final Iterable<CacheDefinition> cacheDefinitions) {
+    this.keyGenerator = keyGenerator;
+    this.valueGenerator = valueGenerator;
+    this.cacheDefinitions = cacheDefinitions;
+  }
+
+  @Override
+  public long load(final StatisticsHolder statisticsHolder, final long first, final int count) throws TestException {
+    List<Element> entries = new ArrayList<Element>(count);
+    long bytes = 0;
+    for (int i = 0; i < count; i++) {
+      long seed = batchSequence.seed(null, first, i);
+      K k = keyGenerator.generate(seed);
+      V v = valueGenerator.generate(seed);
+      entries.add(new Element(k, v));
+      bytes += Math.max(0, valueSize(k)) + Math.max(0, valueSize(v));
+    }
+
+    for (final CacheDefinition cacheDefinition : cacheDefinitions) {
+      Ehcache cache = cacheDefinition.getCache();
+      long start = statisticsHolder.getTimeInNs();
+      try {
+        cache.putAll(entries);
+        long end = statisticsHolder.getTimeInNs();
+        long latencyPerKey = (end - start) / count;
+        for (int i = 0; i < count; i++) {
+          cacheDefinition.record(statisticsHolder, latencyPerKey, PUTALL);
+        }
+      } catch (Exception e) {
+        long end = statisticsHolder.getTimeInNs();
+        long latencyPerKey = (end - start) / count;
+        for (int i = 0; i < count; i++) {
+          cacheDefinition.record(statisticsHolder, latencyPerKey, EXCEPTION);
+        }
+        throw new TestException("Prefill of " + cacheDefinition.getName() + " failed from seed " + first, e);
+      }
+    }
+    return bytes;
+  }
+
+  @Override
+  public String getDescription() {
+    return "putAll(Collection<Element(" + keyGenerator.getDescription() + " key, "
+           + valueGenerator.getDescription() + " value)> elements), " + batchSequence.getDescription();
+  }
+}
@@ -22,6 +22,7 @@ import io.rainfall.EhcacheOperation;
 import io.rainfall.ObjectGenerator;
 import io.rainfall.SequenceGenerator;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.execution.ScheduledStart;
 import io.rainfall.ehcache2.CacheConfig;
 import io.rainfall.ehcache2.CacheDefinition;
 import io.rainfall.statistics.StatisticsHolder;
@@ -68,18 +69,18 @@ public class PutIfAbsentOperation<K, V> extends EhcacheOperation<K, V> {
       Object v1 = valueGenerator.generate(next);
 
       Element element = new Element(k, v1);
-      long start = statisticsHolder.getTimeInNs();
+      long start = ScheduledStart.getTimeInNs(statisticsHolder);
       try {
         v = cache.putIfAbsent(element);
         long end = statisticsHolder.getTimeInNs();
         if (v != null) {
-          statisticsHolder.record(cacheDefinition.getName(), (end - start), PUTIFABSENT_MISS);
+          cacheDefinition.record(statisticsHolder, (end - start), PUTIFABSENT_MISS);
         } else {
-          statisticsHolder.record(cacheDefinition.getName(), (end - start), PUTIFABSENT);
+          cacheDefinition.record(statisticsHolder, (end - start), PUTIFABSENT);
         }
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheDefinition.getName(), (end - start), EXCEPTION);
+        cacheDefinition.record(statisticsHolder, (end - start), EXCEPTION);
       }
     }
   }
@@ -22,6 +22,7 @@ import io.rainfall.ObjectGenerator;
 import io.rainfall.Operation;
 import io.rainfall.SequenceGenerator;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.execution.ScheduledStart;
 import io.rainfall.ehcache2.CacheDefinition;
 import io.rainfall.statistics.StatisticsHolder;
 import net.sf.ehcache.Ehcache;
@@ -44,7 +45,7 @@ public class PutOperation<K, V> implements Operation {
   protected final ObjectGenerator<K> keyGenerator;
   protected final ObjectGenerator<V> valueGenerator;
   protected final SequenceGenerator sequenceGenerator;
-  private final Iterable<CacheDefinition> cacheDefinitions;
+  protected final Iterable<CacheDefinition> cacheDefinitions;
 
   public PutOperation(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
                       final SequenceGenerator sequenceGenerator, final Iterable<CacheDefinition> cacheDefinitions) {
@@ -65,15 +66,15 @@ public class PutOperation<K, V> implements Operation {
       Object v = valueGenerator.generate(next);
 
       Element element = new Element(k, v);
-      long start = statisticsHolder.getTimeInNs();
+      long start = ScheduledStart.getTimeInNs(statisticsHolder);
       try {
         cache.put(element);
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheDefinition.getName(), (end - start), PUT);
+        cacheDefinition.record(statisticsHolder, (end - start), PUT);
       } catch (Exception e) {
         e.printStackTrace();
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheDefinition.getName(), (end - start), EXCEPTION);
+        cacheDefinition.record(statisticsHolder, (end - start), EXCEPTION);
       }
     }
   }
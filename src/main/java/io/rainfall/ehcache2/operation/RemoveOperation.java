@@ -22,6 +22,7 @@ import io.rainfall.ObjectGenerator;
 import io.rainfall.Operation;
 import io.rainfall.SequenceGenerator;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.execution.ScheduledStart;
 import io.rainfall.ehcache2.CacheDefinition;
 import io.rainfall.statistics.StatisticsHolder;
 import net.sf.ehcache.Ehcache;
@@ -61,18 +62,18 @@ public class RemoveOperation<K, V> implements Operation {
       boolean removed;
       Object k = keyGenerator.generate(next);
 
-      long start = statisticsHolder.getTimeInNs();
+      long start = ScheduledStart.getTimeInNs(statisticsHolder);
       try {
         removed = cache.remove(k);
         long end = statisticsHolder.getTimeInNs();
         if (removed) {
-          statisticsHolder.record(cacheDefinition.getName(), (end - start), REMOVE);
+          cacheDefinition.record(statisticsHolder, (end - start), REMOVE);
         } else {
-          statisticsHolder.record(cacheDefinition.getName(), (end - start), MISS);
+          cacheDefinition.record(statisticsHolder, (end - start), MISS);
         }
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheDefinition.getName(), (end - start), EXCEPTION);
+        cacheDefinition.record(statisticsHolder, (end - start), EXCEPTION);
       }
     }
   }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache2.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.ObjectGenerator;
+import io.rainfall.Operation;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.execution.ScheduledStart;
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.ehcache.trace.TraceOp;
+import io.rainfall.ehcache.trace.TraceReader;
+import io.rainfall.ehcache.trace.TraceReplay;
+import io.rainfall.ehcache.trace.TraceValues;
+import io.rainfall.ehcache2.CacheDefinition;
+import io.rainfall.statistics.StatisticsHolder;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
+import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUTIFABSENT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUTIFABSENT_MISS;
+import static io.rainfall.ehcache.statistics.EhcacheResult.REMOVE;
+import static io.rainfall.ehcache.statistics.EhcacheResult.REPLACE;
+import static io.rainfall.ehcache.statistics.EhcacheResult.REPLACE_MISS;
+
+/**
+ * Execute and measure the next operation of an access trace (see {@link TraceReplay}), each execution replays
+ * one record. Bulk operations of the trace are replayed as single key operations.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TraceReplayOperation<K, V> implements Operation {
+
+  private final ObjectGenerator<K> keyGenerator;
+  private final TraceValues<V> values;
+  private final TraceReplay replay;
+  private final Iterable<CacheDefinition> cacheDefinitions;
+
+  /**
+   * @param keyGenerator generates the keys, seeded with the key ids of the trace
+   */
+  public TraceReplayOperation(final ObjectGenerator<K> keyGenerator, final TraceValues<V> values,
+                              final TraceReplay replay, final Iterable<CacheDefinition> cacheDefinitions) {
+    this.keyGenerator = keyGenerator;
+    this.values = values;
+    this.replay = replay;
+    this.cacheDefinitions = cacheDefinitions;
+  }
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
+      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    final long position = replay.claim();
+    final TraceReader reader = replay.getReader();
+    final long index = replay.index(position);
+    final TraceOp op = reader.op(index);
+    final long keyId = reader.keyId(index);
+    final int valueSize = reader.valueSize(index);
+    final long scheduledStart = replay.awaitScheduledStart(statisticsHolder, position);
+
+    for (final CacheDefinition cacheDefinition : cacheDefinitions) {
+      Ehcache cache = cacheDefinition.getCache();
+      Object k = keyGenerator.generate(keyId);
+      V v = (op == TraceOp.GET || op == TraceOp.GET_ALL || op == TraceOp.REMOVE || op == TraceOp.REMOVE_ALL)
+          ? null : values.value(keyId, valueSize);
+
+      long start = Math.min(scheduledStart, ScheduledStart.getTimeInNs(statisticsHolder));
+      try {
+        EhcacheResult result;
+        switch (op) {
+          case GET:
+          case GET_ALL:
+            result = cache.get(k) == null ? MISS : GET;
+            break;
+          case PUT:
+          case PUT_ALL:
+            cache.put(new Element(k, v));
+            result = PUT;
+            break;
+          case PUT_IF_ABSENT:
+            result = cache.putIfAbsent(new Element(k, v)) == null ? PUTIFABSENT : PUTIFABSENT_MISS;
+            break;
+          case REPLACE:
+            result = cache.replace(new Element(k, v)) == null ? REPLACE_MISS : REPLACE;
+            break;
+          default:
+            result = cache.remove(k) ? REMOVE : MISS;
+            break;
+        }
+        long end = statisticsHolder.getTimeInNs();
+        cacheDefinition.record(statisticsHolder, (end - start), result);
+      } catch (Exception e) {
+        long end = statisticsHolder.getTimeInNs();
+        cacheDefinition.record(statisticsHolder, (end - start), EXCEPTION);
+      }
+    }
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = new ArrayList<String>();
+    desc.add("replay(" + keyGenerator.getDescription() + " key, " + values.getDescription() + " value)");
+    desc.add(replay.getDescription());
+    return desc;
+  }
+}
@@ -1,6 +1,14 @@
 package io.rainfall.ehcache3;
 
+import io.rainfall.ehcache.statistics.HarnessFloor;
+import io.rainfall.ehcache.statistics.HarnessFloors;
+import io.rainfall.ehcache.statistics.Instruments;
+import io.rainfall.ehcache3.event.EventLagListener;
+import io.rainfall.ehcache3.event.EventStampingCache;
+import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
+import org.ehcache.event.EventFiring;
+import org.ehcache.event.EventOrdering;
 
 /**
  * @author Aurelien Broszniowski
@@ -8,8 +16,9 @@ import org.ehcache.Cache;
 
 public class CacheDefinition<K, V> {
 
-  private String name;
+  private final String name;
   private Cache<K, V> cache;
+  private EventLagListener<K, V> eventListener;
 
   public CacheDefinition(final String name, final Cache<K, V> cache) {
     this.name = name;
@@ -20,6 +29,73 @@ public class CacheDefinition<K, V> {
     return new CacheDefinition<X, Y>(name, cache);
   }
 
+  /**
+   * Definition over a cache with an instrumented event listener registered in the given mode : the operations
+   * record the mutation latency under the name of the cache, and the listener registers the event delivery lags
+   * in the instruments, see {@link EventLagListener}.
+   * <p>
+   * Every listener registered on a cache is called on each of its mutations, so each listener mode needs its own
+   * cache : a cache can only be listened once.
+   *
+   * @throws IllegalArgumentException if the cache is already listened
+   */
+  public static <X, Y> CacheDefinition<X, Y> listenedCache(String name, Cache<X, Y> cache, EventFiring firing,
+                                                           EventOrdering ordering, Instruments instruments) {
+    if (EventLagListener.isListened(cache)) {
+      throw new IllegalArgumentException("Cache " + name + " is already listened, use one cache per listener mode");
+    }
+    EventLagListener<X, Y> listener = new EventLagListener<X, Y>(name, firing, ordering, instruments).registerOn(cache);
+    CacheDefinition<X, Y> definition = new CacheDefinition<X, Y>(name, EventStampingCache.listened(cache, listener));
+    definition.eventListener = listener;
+    return definition;
+  }
+
+  /**
+   * Definition over a cache stamping its mutations like {@link #listenedCache} does, without a listener : the
+   * baseline of the mutation latency of the listened caches. The baseline needs its own cache too.
+   *
+   * @throws IllegalArgumentException if the cache is listened
+   */
+  public static <X, Y> CacheDefinition<X, Y> stampedCache(String name, Cache<X, Y> cache) {
+    if (EventLagListener.isListened(cache)) {
+      throw new IllegalArgumentException("Cache " + name + " is listened, the baseline needs a cache without listener");
+    }
+    return new CacheDefinition<X, Y>(name, EventStampingCache.baseline(cache));
+  }
+
+  /**
+   * Baseline definition over a {@link NullCache} : running the scenario against it reports the harness floor
+   * (latency and throughput) under its own name, alongside the real caches
+   * <p>
+   * The latencies recorded under its name are the part of the harness inside the measured window. The time between
+   * two records of the same operation thread, i.e. the whole exec path on a no-op cache (sequence and key
+   * generation, operation selection, recording...), is recorded under its name followed by "-exec". That one is
+   * only meaningful when the baseline is the only cache of the scenario, in a closed-loop execution where the threads
+   * don't wait between operations.
+   */
+  public static <X, Y> CacheDefinition<X, Y> nullCache(String name) {
+    return new Baseline<X, Y>(name, new NullCache<X, Y>());
+  }
+
+  /**
+   * Subtracts the median latency measured by the baseline, for the same result type, from the latencies recorded
+   * for this cache. Only the floor inside the measured window is subtracted, the rest of the exec path is not part
+   * of the recorded latencies. The baseline must be run in the same scenario, e.g. as the first cache of the list.
+   * Until the baseline has taken {@link HarnessFloor#WARMUP_SAMPLES} samples of a result type, the operations with
+   * that result are recorded unchanged under the name of this cache followed by "-unfloored".
+   *
+   * @param baseline definition created by {@link #nullCache(String)}
+   * @return a new definition of the same cache and name, to use instead of this one
+   */
+  public CacheDefinition<K, V> minusHarnessFloor(CacheDefinition<?, ?> baseline) {
+    if (!(baseline instanceof Baseline)) {
+      throw new IllegalArgumentException("Cache definition " + baseline.getName() + " is not a null cache baseline");
+    }
+    CacheDefinition<K, V> floored = new Floored<K, V>(name, cache, ((Baseline<?, ?>)baseline).floors);
+    floored.eventListener = eventListener;
+    return floored;
+  }
+
   public String getName() {
     return name;
   }
@@ -27,4 +103,82 @@ public class CacheDefinition<K, V> {
   public Cache<K, V> getCache() {
     return cache;
   }
+
+  /**
+   * @return the event listener of a {@link #listenedCache}, null otherwise
+   */
+  public EventLagListener<K, V> getEventListener() {
+    return eventListener;
+  }
+
+  /**
+   * Replaces the cache, e.g. with a cache of another size between two runs.
+   */
+  public void replaceCache(final Cache<K, V> cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * Records the result of an operation on this cache.
+   * <p>
+   * rainfall-core only records by cache name, so every record still looks the name up in the statistics holder,
+   * there is no per-result slot to resolve ahead of the run. This method is the single point where the operations
+   * record, which the harness floor definitions override.
+   */
+  public void record(final StatisticsHolder statisticsHolder, final long latencyInNs, final Enum result) {
+    statisticsHolder.record(name, latencyInNs, result);
+  }
+
+  /**
+   * Null cache whose latencies are the harness floor.
+   */
+  private static final class Baseline<K, V> extends CacheDefinition<K, V> {
+
+    private final HarnessFloors floors = new HarnessFloors();
+    private final String execName;
+    private final ThreadLocal<long[]> lastRecordTime = ThreadLocal.withInitial(() -> new long[1]);
+
+    Baseline(final String name, final Cache<K, V> cache) {
+      super(name, cache);
+      this.execName = name + "-exec";
+    }
+
+    @Override
+    public void record(final StatisticsHolder statisticsHolder, final long latencyInNs, final Enum result) {
+      floors.of(result).sample(latencyInNs);
+      super.record(statisticsHolder, latencyInNs, result);
+      long now = statisticsHolder.getTimeInNs();
+      long[] last = lastRecordTime.get();
+      if (last[0] != 0) {
+        statisticsHolder.record(execName, now - last[0], result);
+      }
+      last[0] = now;
+    }
+  }
+
+  /**
+   * Cache whose latencies are recorded minus the harness floor of their result type, or under the unfloored name
+   * until that floor has converged.
+   */
+  private static final class Floored<K, V> extends CacheDefinition<K, V> {
+
+    private final HarnessFloors floors;
+    private final String unflooredName;
+
+    Floored(final String name, final Cache<K, V> cache, final HarnessFloors floors) {
+      super(name, cache);
+      this.floors = floors;
+      this.unflooredName = name + "-unfloored";
+    }
+
+    @Override
+    public void record(final StatisticsHolder statisticsHolder, final long latencyInNs, final Enum result) {
+      HarnessFloor floor = floors.of(result);
+      if (floor.isConverged()) {
+        super.record(statisticsHolder, floor.subtractFrom(latencyInNs), result);
+      } else {
+        statisticsHolder.record(unflooredName, latencyInNs, result);
+      }
+    }
+  }
 }
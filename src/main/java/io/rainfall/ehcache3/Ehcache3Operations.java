@@ -19,6 +19,16 @@ package io.rainfall.ehcache3;
 import io.rainfall.ObjectGenerator;
 import io.rainfall.Operation;
 import io.rainfall.SequenceGenerator;
+import io.rainfall.ehcache.execution.PartitionedPrefill;
+import io.rainfall.ehcache.generator.BatchSequence;
+import io.rainfall.ehcache.operation.FanOut;
+import io.rainfall.ehcache.statistics.Instruments;
+import io.rainfall.ehcache.trace.TraceReplay;
+import io.rainfall.ehcache.trace.TraceValues;
+import io.rainfall.ehcache3.expiry.TrackingExpiry;
+import io.rainfall.ehcache3.expiry.TtlDistribution;
+import io.rainfall.ehcache3.loaderwriter.WriteBehindTracker;
+import io.rainfall.ehcache3.statistics.TierHits;
 
 /**
  * Contains the helper methods to instantiate the Ehcache {@link io.rainfall.Operation} objects.
@@ -51,6 +61,30 @@ public class Ehcache3Operations {
     }
   }
 
+  public static <K, V> io.rainfall.ehcache3.operation.PutVerifiedOperation<K, V> putVerified(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
+                                                                                             final SequenceGenerator sequenceGenerator, final double sampleRatio, final int verifierThreads,
+                                                                                             final Iterable<CacheDefinition<K, V>> cacheDefinitions) {
+    return new io.rainfall.ehcache3.operation.PutVerifiedOperation<K, V>(keyGenerator, valueGenerator, sequenceGenerator, cacheDefinitions, sampleRatio, verifierThreads);
+  }
+
+  public static <K, V> Operation put(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
+                                     final SequenceGenerator sequenceGenerator, final Iterable<CacheDefinition<K, V>> cacheDefinitions,
+                                     final FanOut fanOut) {
+    return new io.rainfall.ehcache3.operation.FanOutPutOperation<K, V>(keyGenerator, valueGenerator, sequenceGenerator, cacheDefinitions, fanOut);
+  }
+
+  public static <K, V> Operation writeBehindPut(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
+                                                final SequenceGenerator sequenceGenerator, final CacheDefinition<K, V> cacheDefinition,
+                                                final WriteBehindTracker tracker) {
+    return new io.rainfall.ehcache3.operation.WriteBehindPutOperation<K, V>(keyGenerator, valueGenerator, sequenceGenerator, cacheDefinition, tracker);
+  }
+
+  public static <K, V> Operation put(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
+                                     final SequenceGenerator sequenceGenerator, final Iterable<CacheDefinition<K, V>> cacheDefinitions,
+                                     final TrackingExpiry<K, ?> expiry, final TtlDistribution ttl) {
+    return new io.rainfall.ehcache3.operation.ExpiringPutOperation<K, V>(keyGenerator, valueGenerator, sequenceGenerator, cacheDefinitions, expiry, ttl);
+  }
+
   @Deprecated
   public static <K, V> io.rainfall.deprecated.ehcache3.operation.GetOperation<K, V> get(Class<K> keyClass, Class<V> valueClass) {
     return new io.rainfall.deprecated.ehcache3.operation.GetOperation<K, V>();
@@ -61,6 +95,29 @@ public class Ehcache3Operations {
     return new io.rainfall.ehcache3.operation.GetOperation<K, V>(keyGenerator, sequenceGenerator, cacheDefinitions);
   }
 
+  public static <K, V> Operation get(final ObjectGenerator<K> keyGenerator,
+                                     final SequenceGenerator sequenceGenerator, final Iterable<CacheDefinition<K, V>> cacheDefinitions,
+                                     final TierHits tierHits) {
+    return new io.rainfall.ehcache3.operation.GetOperation<K, V>(keyGenerator, sequenceGenerator, cacheDefinitions, tierHits);
+  }
+
+  public static <K, V> Operation get(final ObjectGenerator<K> keyGenerator,
+                                     final SequenceGenerator sequenceGenerator, final Iterable<CacheDefinition<K, V>> cacheDefinitions,
+                                     final FanOut fanOut) {
+    return new io.rainfall.ehcache3.operation.FanOutGetOperation<K, V>(keyGenerator, sequenceGenerator, cacheDefinitions, fanOut);
+  }
+
+  public static <K, V> Operation readThroughGet(final ObjectGenerator<K> keyGenerator,
+                                                final SequenceGenerator sequenceGenerator, final Iterable<CacheDefinition<K, V>> cacheDefinitions) {
+    return new io.rainfall.ehcache3.operation.ReadThroughGetOperation<K, V>(keyGenerator, sequenceGenerator, cacheDefinitions);
+  }
+
+  public static <K, V> Operation expiryAwareGet(final ObjectGenerator<K> keyGenerator,
+                                                final SequenceGenerator sequenceGenerator, final Iterable<CacheDefinition<K, V>> cacheDefinitions,
+                                                final TrackingExpiry<K, ?> expiry) {
+    return new io.rainfall.ehcache3.operation.ExpiryAwareGetOperation<K, V>(keyGenerator, sequenceGenerator, cacheDefinitions, expiry);
+  }
+
   @Deprecated
   public static <K, V> io.rainfall.deprecated.ehcache3.operation.GetOperation<K, V> get(Class<K> keyClass, Class<V> valueClass, long tpsLimit) {
     return new io.rainfall.deprecated.ehcache3.operation.TpsLimitGetOperation<K, V>(tpsLimit);
@@ -91,6 +148,12 @@ public class Ehcache3Operations {
     return new io.rainfall.ehcache3.operation.PutAllOperation<K, V>(keyGenerator, valueGenerator, sequenceGenerator, bulkBatchSize, cacheDefinitions);
   }
 
+  public static <K, V> Operation putAll(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
+                                        final SequenceGenerator sequenceGenerator, final int bulkBatchSize, final BatchSequence batchSequence,
+                                        final Iterable<CacheDefinition<K, V>> cacheDefinitions) {
+    return new io.rainfall.ehcache3.operation.PutAllOperation<K, V>(keyGenerator, valueGenerator, sequenceGenerator, bulkBatchSize, batchSequence, cacheDefinitions);
+  }
+
   @Deprecated
   public static <K, V> io.rainfall.deprecated.ehcache3.operation.GetAllOperation<K, V> getAll(Class<K> keyClass, Class<V> valueClass) {
     return new io.rainfall.deprecated.ehcache3.operation.GetAllOperation<K, V>();
@@ -101,6 +164,12 @@ public class Ehcache3Operations {
     return new io.rainfall.ehcache3.operation.GetAllOperation<K, V>(keyGenerator, sequenceGenerator, bulkBatchSize, cacheDefinitions);
   }
 
+  public static <K, V> Operation getAll(final ObjectGenerator<K> keyGenerator,
+                                        final SequenceGenerator sequenceGenerator, final int bulkBatchSize, final BatchSequence batchSequence,
+                                        final Iterable<CacheDefinition<K, V>> cacheDefinitions) {
+    return new io.rainfall.ehcache3.operation.GetAllOperation<K, V>(keyGenerator, sequenceGenerator, bulkBatchSize, batchSequence, cacheDefinitions);
+  }
+
   @Deprecated
   public static <K, V> io.rainfall.deprecated.ehcache3.operation.RemoveAllOperation<K, V> removeAll(Class<K> keyClass, Class<V> valueClass) {
     return new io.rainfall.deprecated.ehcache3.operation.RemoveAllOperation<K, V>();
@@ -111,6 +180,12 @@ public class Ehcache3Operations {
     return new io.rainfall.ehcache3.operation.RemoveAllOperation<K, V>(keyGenerator, sequenceGenerator, bulkBatchSize, cacheDefinitions);
   }
 
+  public static <K, V> Operation removeAll(final ObjectGenerator<K> keyGenerator,
+                                           final SequenceGenerator sequenceGenerator, final int bulkBatchSize, final BatchSequence batchSequence,
+                                           final Iterable<CacheDefinition<K, V>> cacheDefinitions) {
+    return new io.rainfall.ehcache3.operation.RemoveAllOperation<K, V>(keyGenerator, sequenceGenerator, bulkBatchSize, batchSequence, cacheDefinitions);
+  }
+
 
   @Deprecated
   public static <K, V> io.rainfall.deprecated.ehcache3.operation.PutIfAbsentOperation<K, V> putIfAbsent(Class<K> keyClass, Class<V> valueClass) {
@@ -152,4 +227,25 @@ public class Ehcache3Operations {
     return new io.rainfall.ehcache3.operation.RemoveForKeyAndValueOperation<K, V>(keyGenerator, valueGenerator, sequenceGenerator, cacheDefinitions);
   }
 
+  public static <K, V> Operation replay(final ObjectGenerator<K> keyGenerator, final TraceValues<V> values,
+                                        final TraceReplay replay, final Iterable<CacheDefinition<K, V>> cacheDefinitions) {
+    return new io.rainfall.ehcache3.operation.TraceReplayOperation<K, V>(keyGenerator, values, replay, cacheDefinitions);
+  }
+
+  public static <K, V> PartitionedPrefill.Loader prefillLoader(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
+                                                               final Iterable<CacheDefinition<K, V>> cacheDefinitions) {
+    return new io.rainfall.ehcache3.operation.PrefillLoader<K, V>(keyGenerator, valueGenerator, cacheDefinitions);
+  }
+
+  public static <K, V> Operation allocationMeasuredGet(final ObjectGenerator<K> keyGenerator,
+                                                       final SequenceGenerator sequenceGenerator, final Iterable<CacheDefinition<K, V>> cacheDefinitions,
+                                                       final Instruments instruments) {
+    return new io.rainfall.ehcache3.operation.AllocationMeasuredGetOperation<K, V>(keyGenerator, sequenceGenerator, cacheDefinitions, instruments);
+  }
+
+  public static <K, V> Operation allocationMeasuredPut(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
+                                                       final SequenceGenerator sequenceGenerator, final Iterable<CacheDefinition<K, V>> cacheDefinitions,
+                                                       final Instruments instruments) {
+    return new io.rainfall.ehcache3.operation.AllocationMeasuredPutOperation<K, V>(keyGenerator, valueGenerator, sequenceGenerator, cacheDefinitions, instruments);
+  }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache3;
+
+import org.ehcache.Cache;
+import org.ehcache.config.CacheRuntimeConfiguration;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * No-op stand-in for an Ehcache 3 {@link Cache} : nothing is stored, every read misses.
+ * <p>
+ * Running the operations against it measures the part of the harness that falls inside the measured window, i.e.
+ * the clock reads and the call through the cache interface, see {@link CacheDefinition#nullCache(String)}. Key
+ * and value generation and the recording happen outside of that window, the baseline definition reports the whole
+ * exec path separately.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class NullCache<K, V> implements Cache<K, V> {
+
+  @Override
+  public V get(final K key) {
+    return null;
+  }
+
+  @Override
+  public void put(final K key, final V value) {
+  }
+
+  @Override
+  public boolean containsKey(final K key) {
+    return false;
+  }
+
+  @Override
+  public void remove(final K key) {
+  }
+
+  @Override
+  public Map<K, V> getAll(final Set<? extends K> keys) {
+    Map<K, V> all = new HashMap<K, V>();
+    for (K key : keys) {
+      all.put(key, null);
+    }
+    return all;
+  }
+
+  @Override
+  public void putAll(final Map<? extends K, ? extends V> entries) {
+  }
+
+  @Override
+  public void removeAll(final Set<? extends K> keys) {
+  }
+
+  @Override
+  public void clear() {
+  }
+
+  @Override
+  public V putIfAbsent(final K key, final V value) {
+    return null;
+  }
+
+  @Override
+  public boolean remove(final K key, final V value) {
+    return false;
+  }
+
+  @Override
+  public V replace(final K key, final V value) {
+    return null;
+  }
+
+  @Override
+  public boolean replace(final K key, final V oldValue, final V newValue) {
+    return false;
+  }
+
+  @Override
+  public CacheRuntimeConfiguration<K, V> getRuntimeConfiguration() {
+    return null;
+  }
+
+  @Override
+  public Iterator<Entry<K, V>> iterator() {
+    return Collections.<Entry<K, V>>emptyList().iterator();
+  }
+}
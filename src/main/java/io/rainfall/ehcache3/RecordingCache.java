@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache3;
+
+import io.rainfall.ehcache.trace.TraceOp;
+import io.rainfall.ehcache.trace.TraceRecorder;
+import org.ehcache.Cache;
+import org.ehcache.config.CacheRuntimeConfiguration;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import static io.rainfall.ehcache.utils.ValueSizes.valueSize;
+
+/**
+ * Ehcache 3 {@link Cache} decorator recording the accesses to the cache into an access trace, see
+ * {@link TraceRecorder}. Bulk operations are recorded as one record per key.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class RecordingCache<K, V> implements Cache<K, V> {
+
+  private final Cache<K, V> delegate;
+  private final TraceRecorder recorder;
+
+  public RecordingCache(final Cache<K, V> delegate, final TraceRecorder recorder) {
+    this.delegate = delegate;
+    this.recorder = recorder;
+  }
+
+  @Override
+  public V get(final K key) {
+    recorder.record(TraceOp.GET, key, -1);
+    return delegate.get(key);
+  }
+
+  @Override
+  public void put(final K key, final V value) {
+    recorder.record(TraceOp.PUT, key, valueSize(value));
+    delegate.put(key, value);
+  }
+
+  @Override
+  public boolean containsKey(final K key) {
+    return delegate.containsKey(key);
+  }
+
+  @Override
+  public void remove(final K key) {
+    recorder.record(TraceOp.REMOVE, key, -1);
+    delegate.remove(key);
+  }
+
+  @Override
+  public Map<K, V> getAll(final Set<? extends K> keys) {
+    for (K key : keys) {
+      recorder.record(TraceOp.GET_ALL, key, -1);
+    }
+    return delegate.getAll(keys);
+  }
+
+  @Override
+  public void putAll(final Map<? extends K, ? extends V> entries) {
+    for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+      recorder.record(TraceOp.PUT_ALL, entry.getKey(), valueSize(entry.getValue()));
+    }
+    delegate.putAll(entries);
+  }
+
+  @Override
+  public void removeAll(final Set<? extends K> keys) {
+    for (K key : keys) {
+      recorder.record(TraceOp.REMOVE_ALL, key, -1);
+    }
+    delegate.removeAll(keys);
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+  }
+
+  @Override
+  public V putIfAbsent(final K key, final V value) {
+    recorder.record(TraceOp.PUT_IF_ABSENT, key, valueSize(value));
+    return delegate.putIfAbsent(key, value);
+  }
+
+  @Override
+  public boolean remove(final K key, final V value) {
+    recorder.record(TraceOp.REMOVE, key, valueSize(value));
+    return delegate.remove(key, value);
+  }
+
+  @Override
+  public V replace(final K key, final V value) {
+    recorder.record(TraceOp.REPLACE, key, valueSize(value));
+    return delegate.replace(key, value);
+  }
+
+  @Override
+  public boolean replace(final K key, final V oldValue, final V newValue) {
+    recorder.record(TraceOp.REPLACE, key, valueSize(newValue));
+    return delegate.replace(key, oldValue, newValue);
+  }
+
+  @Override
+  public CacheRuntimeConfiguration<K, V> getRuntimeConfiguration() {
+    return delegate.getRuntimeConfiguration();
+  }
+
+  @Override
+  public Iterator<Entry<K, V>> iterator() {
+    return delegate.iterator();
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache3.copier;
+
+import io.rainfall.ehcache.statistics.Instruments;
+import org.HdrHistogram.Histogram;
+import org.ehcache.impl.copy.IdentityCopier;
+import org.ehcache.impl.copy.SerializingCopier;
+import org.ehcache.spi.copy.Copier;
+import org.ehcache.spi.serialization.Serializer;
+
+import static io.rainfall.ehcache.statistics.Instruments.Unit.NANOSECONDS;
+
+/**
+ * Ehcache 3 {@link Copier} decorator measuring the cost of storing the entries by reference or by value in the
+ * heap tier.
+ * <p>
+ * The copier must be the one the cache was configured with, e.g. with
+ * {@link org.ehcache.config.builders.CacheConfigurationBuilder#withValueCopier(Copier)}. The copy times are
+ * registered in the {@link Instruments}, in ns, under its name followed by "-copy-for-read" and "-copy-for-write".
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TimedCopier<T> implements Copier<T> {
+
+  private final Copier<T> delegate;
+  private final String description;
+  private final Histogram readCopyTimes;
+  private final Histogram writeCopyTimes;
+
+  public TimedCopier(final Copier<T> delegate, final String description, final Instruments instruments, final String name) {
+    this.delegate = delegate;
+    this.description = description;
+    this.readCopyTimes = instruments.register(name + "-copy-for-read", NANOSECONDS);
+    this.writeCopyTimes = instruments.register(name + "-copy-for-write", NANOSECONDS);
+  }
+
+  public static <T> TimedCopier<T> timed(final Copier<T> delegate, final Instruments instruments, final String name) {
+    return new TimedCopier<T>(delegate, delegate.getClass().getSimpleName(), instruments, name);
+  }
+
+  /**
+   * Stores the entries by reference, as Ehcache 3 does by default in the heap tier.
+   */
+  public static <T> TimedCopier<T> byReference(final Instruments instruments, final String name) {
+    return new TimedCopier<T>(new IdentityCopier<T>(), "by reference", instruments, name);
+  }
+
+  /**
+   * Stores the entries by value, copied through the serializer.
+   */
+  public static <T> TimedCopier<T> byValue(final Serializer<T> serializer, final Instruments instruments, final String name) {
+    return new TimedCopier<T>(new SerializingCopier<T>(serializer), "by value", instruments, name);
+  }
+
+  @Override
+  public T copyForRead(final T obj) {
+    long start = System.nanoTime();
+    T copy = delegate.copyForRead(obj);
+    long end = System.nanoTime();
+    readCopyTimes.recordValue(end - start);
+    return copy;
+  }
+
+  @Override
+  public T copyForWrite(final T obj) {
+    long start = System.nanoTime();
+    T copy = delegate.copyForWrite(obj);
+    long end = System.nanoTime();
+    writeCopyTimes.recordValue(end - start);
+    return copy;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache3.event;
+
+import io.rainfall.ehcache.statistics.Instruments;
+import org.HdrHistogram.Histogram;
+import org.ehcache.Cache;
+import org.ehcache.event.CacheEvent;
+import org.ehcache.event.CacheEventListener;
+import org.ehcache.event.EventFiring;
+import org.ehcache.event.EventOrdering;
+import org.ehcache.event.EventType;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.rainfall.ehcache.statistics.Instruments.Unit.NANOSECONDS;
+
+/**
+ * Ehcache 3 {@link CacheEventListener} measuring the lag between a mutation of the cache and the delivery of its
+ * event, see {@link EventStampingCache}.
+ * <p>
+ * The lags are registered in the {@link Instruments}, in ns, under the name of the cache followed by the listener
+ * mode and "-put-lag" for the created and updated events, or "-remove-lag" for the removed events. The events
+ * that could not be timed are counted in the instruments too, under "-unmatched-events" and "-stale-stamps". The
+ * mutation latency itself is recorded under the name of the cache by the operations, as usual.
+ * <p>
+ * A cache can only have one such listener : the listeners of a cache are all called on each of its mutations, so
+ * comparing listener modes takes one cache per mode.
+ * <p>
+ * An event is timed from the last mutation of its key, so when a key is mutated again before the event of the
+ * previous mutation is delivered, that event is timed from the later mutation and the next one is unmatched.
+ * A stamp older than {@link #MAX_LAG_IN_NS} is stale (e.g. left by the remove of an absent key in the asynchronous
+ * mode, which fires no event) and is not recorded.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class EventLagListener<K, V> implements CacheEventListener<K, V> {
+
+  public static final long MAX_LAG_IN_NS = TimeUnit.SECONDS.toNanos(10);
+
+  private static final Set<EventType> EVENT_TYPES = EnumSet.of(EventType.CREATED, EventType.UPDATED, EventType.REMOVED);
+  private static final Map<Cache<?, ?>, EventLagListener<?, ?>> LISTENED_CACHES = new WeakHashMap<Cache<?, ?>, EventLagListener<?, ?>>();
+
+  private final String name;
+  private final EventFiring firing;
+  private final EventOrdering ordering;
+  private final MutationStamps<K> stamps = new MutationStamps<K>();
+  private final Histogram putLags;
+  private final Histogram removeLags;
+  private final LongAdder unmatchedEvents;
+  private final LongAdder staleStamps;
+
+  public EventLagListener(final String cacheName, final EventFiring firing, final EventOrdering ordering,
+                          final Instruments instruments) {
+    this.name = cacheName + "-events-" + firing.name().toLowerCase(Locale.ROOT) + "-" + ordering.name().toLowerCase(Locale.ROOT);
+    this.firing = firing;
+    this.ordering = ordering;
+    this.putLags = instruments.register(name + "-put-lag", NANOSECONDS);
+    this.removeLags = instruments.register(name + "-remove-lag", NANOSECONDS);
+    this.unmatchedEvents = instruments.registerCounter(name + "-unmatched-events");
+    this.staleStamps = instruments.registerCounter(name + "-stale-stamps");
+  }
+
+  /**
+   * Registers the listener on the cache, for the created, updated and removed events.
+   *
+   * @throws IllegalArgumentException if the cache already has a listener of this class
+   */
+  public EventLagListener<K, V> registerOn(final Cache<K, V> cache) {
+    synchronized (LISTENED_CACHES) {
+      EventLagListener<?, ?> registered = LISTENED_CACHES.get(cache);
+      if (registered != null) {
+        throw new IllegalArgumentException("Cache already listened by " + registered.getName() + ", use one cache per listener mode");
+      }
+      cache.getRuntimeConfiguration().registerCacheEventListener(this, ordering, firing, EVENT_TYPES);
+      LISTENED_CACHES.put(cache, this);
+    }
+    return this;
+  }
+
+  /**
+   * @return true if a listener of this class is registered on the cache
+   */
+  public static boolean isListened(final Cache<?, ?> cache) {
+    synchronized (LISTENED_CACHES) {
+      return LISTENED_CACHES.containsKey(cache);
+    }
+  }
+
+  MutationStamps<K> stamps() {
+    return stamps;
+  }
+
+  /**
+   * @return true if the events are delivered before the mutation returns
+   */
+  boolean isSynchronous() {
+    return firing == EventFiring.SYNCHRONOUS;
+  }
+
+  @Override
+  public void onEvent(final CacheEvent<K, V> event) {
+    Long mutationTime = stamps.take(event.getKey());
+    if (mutationTime == null) {
+      unmatchedEvents.increment();
+      return;
+    }
+    long lag = System.nanoTime() - mutationTime;
+    if (lag > MAX_LAG_IN_NS) {
+      staleStamps.increment();
+    } else if (event.getType() == EventType.REMOVED) {
+      removeLags.recordValue(lag);
+    } else {
+      putLags.recordValue(lag);
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return count of the events that could not be matched to a mutation (e.g. several mutations of the same key
+   * before the delivery of the first event)
+   */
+  public long getUnmatchedEvents() {
+    return unmatchedEvents.sum();
+  }
+
+  /**
+   * @return count of the events matched to a stamp older than {@link #MAX_LAG_IN_NS}, and not recorded
+   */
+  public long getStaleStamps() {
+    return staleStamps.sum();
+  }
+}
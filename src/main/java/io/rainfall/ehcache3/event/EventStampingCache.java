@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache3.event;
+
+import org.ehcache.Cache;
+import org.ehcache.config.CacheRuntimeConfiguration;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ehcache 3 {@link Cache} decorator stamping the time of each mutation of a key, so that its
+ * {@link EventLagListener} can measure the event delivery lag.
+ * <p>
+ * Stamping is done inside the mutation, so it is part of the latency recorded by the operations : the mutation
+ * latency of a listened cache must be compared to the one of the same cache decorated by {@link #baseline}, which
+ * stamps the same way without a listener. When the events are delivered synchronously, or without a listener,
+ * the stamp of a mutation that fired no event is discarded as soon as the mutation returns.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class EventStampingCache<K, V> implements Cache<K, V> {
+
+  private final Cache<K, V> delegate;
+  private final MutationStamps<K> stamps;
+  private final boolean settled;
+
+  EventStampingCache(final Cache<K, V> delegate, final MutationStamps<K> stamps, final boolean settled) {
+    this.delegate = delegate;
+    this.stamps = stamps;
+    this.settled = settled;
+  }
+
+  public static <K, V> EventStampingCache<K, V> listened(final Cache<K, V> delegate, final EventLagListener<K, V> listener) {
+    return new EventStampingCache<K, V>(delegate, listener.stamps(), listener.isSynchronous());
+  }
+
+  public static <K, V> EventStampingCache<K, V> baseline(final Cache<K, V> delegate) {
+    return new EventStampingCache<K, V>(delegate, new MutationStamps<K>(), true);
+  }
+
+  @Override
+  public V get(final K key) {
+    return delegate.get(key);
+  }
+
+  @Override
+  public void put(final K key, final V value) {
+    Long stamp = stamps.stamp(key);
+    delegate.put(key, value);
+    settle(key, stamp);
+  }
+
+  @Override
+  public boolean containsKey(final K key) {
+    return delegate.containsKey(key);
+  }
+
+  @Override
+  public void remove(final K key) {
+    Long stamp = stamps.stamp(key);
+    delegate.remove(key);
+    settle(key, stamp);
+  }
+
+  @Override
+  public Map<K, V> getAll(final Set<? extends K> keys) {
+    return delegate.getAll(keys);
+  }
+
+  @Override
+  public void putAll(final Map<? extends K, ? extends V> entries) {
+    Long[] keyStamps = stampAll(entries.keySet());
+    delegate.putAll(entries);
+    settleAll(entries.keySet(), keyStamps);
+  }
+
+  @Override
+  public void removeAll(final Set<? extends K> keys) {
+    Long[] keyStamps = stampAll(keys);
+    delegate.removeAll(keys);
+    settleAll(keys, keyStamps);
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+  }
+
+  @Override
+  public V putIfAbsent(final K key, final V value) {
+    Long stamp = stamps.stamp(key);
+    V previous = delegate.putIfAbsent(key, value);
+    if (previous != null) {
+      stamps.discard(key, stamp);
+    } else {
+      settle(key, stamp);
+    }
+    return previous;
+  }
+
+  @Override
+  public boolean remove(final K key, final V value) {
+    Long stamp = stamps.stamp(key);
+    boolean removed = delegate.remove(key, value);
+    if (!removed) {
+      stamps.discard(key, stamp);
+    } else {
+      settle(key, stamp);
+    }
+    return removed;
+  }
+
+  @Override
+  public V replace(final K key, final V value) {
+    Long stamp = stamps.stamp(key);
+    V previous = delegate.replace(key, value);
+    if (previous == null) {
+      stamps.discard(key, stamp);
+    } else {
+      settle(key, stamp);
+    }
+    return previous;
+  }
+
+  @Override
+  public boolean replace(final K key, final V oldValue, final V newValue) {
+    Long stamp = stamps.stamp(key);
+    boolean replaced = delegate.replace(key, oldValue, newValue);
+    if (!replaced) {
+      stamps.discard(key, stamp);
+    } else {
+      settle(key, stamp);
+    }
+    return replaced;
+  }
+
+  @Override
+  public CacheRuntimeConfiguration<K, V> getRuntimeConfiguration() {
+    return delegate.getRuntimeConfiguration();
+  }
+
+  @Override
+  public Iterator<Entry<K, V>> iterator() {
+    return delegate.iterator();
+  }
+
+  private void settle(final K key, final Long stamp) {
+    if (settled) {
+      stamps.discard(key, stamp);
+    }
+  }
+
+  private Long[] stampAll(final Set<? extends K> keys) {
+    Long[] keyStamps = new Long[keys.size()];
+    int i = 0;
+    for (K key : keys) {
+      keyStamps[i++] = stamps.stamp(key);
+    }
+    return keyStamps;
+  }
+
+  private void settleAll(final Set<? extends K> keys, final Long[] keyStamps) {
+    if (settled) {
+      int i = 0;
+      for (K key : keys) {
+        stamps.discard(key, keyStamps[i++]);
+      }
+    }
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache3.event;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Time of the last mutation of each key whose event is not delivered yet.
+ * <p>
+ * The stamp of a mutation replaces any older one, so a stamp left by a mutation that fired no event is dropped by
+ * the next mutation of the key. The stamp returned by {@link #stamp} identifies the mutation, so that discarding it
+ * never drops the stamp of a later mutation.
+ *
+ * @author Aurelien Broszniowski
+ */
+final class MutationStamps<K> {
+
+  private final ConcurrentMap<K, Long> stamps = new ConcurrentHashMap<K, Long>();
+
+  Long stamp(final K key) {
+    Long stamp = System.nanoTime();
+    stamps.put(key, stamp);
+    return stamp;
+  }
+
+  void discard(final K key, final Long stamp) {
+    stamps.remove(key, stamp);
+  }
+
+  /**
+   * @return the time of the last mutation of the key, null if there is none pending
+   */
+  Long take(final K key) {
+    return stamps.remove(key);
+  }
+}
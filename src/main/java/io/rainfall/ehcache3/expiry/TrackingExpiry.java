@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache3.expiry;
+
+import org.ehcache.ValueSupplier;
+import org.ehcache.core.spi.time.SystemTimeSource;
+import org.ehcache.core.spi.time.TimeSource;
+import org.ehcache.expiry.Duration;
+import org.ehcache.expiry.Expiry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ehcache 3 {@link Expiry} giving each entry a time to live drawn from a {@link TtlDistribution}, and remembering
+ * when each key expires, so that a miss can be told apart as expired or absent (never put, or evicted).
+ * <p>
+ * Ehcache calls the expiry inside the timed cache operation, so the callbacks only hand back the duration the
+ * operation drew beforehand with {@link #prepare(TtlDistribution)} or {@link #prepareAccess()}, and cleared after
+ * the call with {@link #clearPrepared()}. The operation stamps the deadline with {@link #expiresAt(Object, long)}
+ * once the call is measured, see
+ * {@link io.rainfall.ehcache3.operation.ExpiringPutOperation} and
+ * {@link io.rainfall.ehcache3.operation.ExpiryAwareGetOperation}. Entries created or accessed through other
+ * operations get a duration drawn from the default distributions, and their deadline is not tracked.
+ * <p>
+ * Deadlines are kept in a fixed number of slots indexed by the key hash, keys sharing a slot overwrite each other's
+ * deadline, so the capacity should be at least the number of keys. They are read from the Ehcache
+ * {@link SystemTimeSource}, in milliseconds like the cache itself, the caches must not be configured with another
+ * time source. A key evicted after it expired is counted as expired.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TrackingExpiry<K, V> implements Expiry<K, V> {
+
+  public static final int DEFAULT_CAPACITY = 1024 * 1024;
+
+  private final TimeSource timeSource = SystemTimeSource.INSTANCE;
+  private final TtlDistribution ttl;
+  private final TtlDistribution tti;
+  private final AtomicLongArray deadlines;
+  private final ThreadLocal<Prepared> prepared = new ThreadLocal<Prepared>() {
+    @Override
+    protected Prepared initialValue() {
+      return new Prepared();
+    }
+  };
+
+  /**
+   * @param ttl default time to live distribution
+   * @param tti time to idle distribution, null for no time to idle
+   * @param capacity number of deadline slots
+   */
+  public TrackingExpiry(final TtlDistribution ttl, final TtlDistribution tti, final int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be strictly positive");
+    }
+    this.ttl = ttl;
+    this.tti = tti;
+    this.deadlines = new AtomicLongArray(capacity);
+  }
+
+  public TrackingExpiry(final TtlDistribution ttl, final TtlDistribution tti) {
+    this(ttl, tti, DEFAULT_CAPACITY);
+  }
+
+  public static <K, V> TrackingExpiry<K, V> timeToLive(final TtlDistribution ttl) {
+    return new TrackingExpiry<K, V>(ttl, null);
+  }
+
+  public static <K, V> TrackingExpiry<K, V> timeToIdle(final TtlDistribution ttl, final TtlDistribution tti) {
+    return new TrackingExpiry<K, V>(ttl, tti);
+  }
+
+  /**
+   * Draws the time to live of the next entry created or updated by the current thread.
+   *
+   * @param distribution distribution to draw from, null for the default distribution
+   * @return time to live in milliseconds
+   */
+  public long prepare(final TtlDistribution distribution) {
+    long ttlInMs = (distribution == null ? ttl : distribution).nextInMs();
+    prepared.get().creation = Duration.of(ttlInMs, TimeUnit.MILLISECONDS);
+    return ttlInMs;
+  }
+
+  /**
+   * Draws the time to idle of the next entry accessed by the current thread.
+   *
+   * @return time to idle in milliseconds, -1 if there is no time to idle
+   */
+  public long prepareAccess() {
+    if (tti == null) {
+      return -1;
+    }
+    long ttiInMs = tti.nextInMs();
+    prepared.get().access = Duration.of(ttiInMs, TimeUnit.MILLISECONDS);
+    return ttiInMs;
+  }
+
+  /**
+   * Forgets the durations prepared by the current thread and not handed to Ehcache, to be called after the cache
+   * operation they were prepared for : a miss or a failed put never calls back the expiry.
+   */
+  public void clearPrepared() {
+    Prepared current = prepared.get();
+    current.creation = null;
+    current.access = null;
+  }
+
+  /**
+   * @return current time of the cache, in milliseconds
+   */
+  public long now() {
+    return timeSource.getTimeMillis();
+  }
+
+  /**
+   * Remembers the deadline of the key, to be called after the cache operation that gave it its expiry.
+   *
+   * @param deadline time in milliseconds read with {@link #now()} before the operation, plus the duration prepared
+   */
+  public void expiresAt(final K key, final long deadline) {
+    deadlines.set(slot(key), deadline);
+  }
+
+  /**
+   * @return true if the key was put and its expiry time has passed
+   */
+  public boolean hasExpired(final K key) {
+    long deadline = deadlines.get(slot(key));
+    return deadline != 0 && now() >= deadline;
+  }
+
+  @Override
+  public Duration getExpiryForCreation(final K key, final V value) {
+    return creation();
+  }
+
+  @Override
+  public Duration getExpiryForAccess(final K key, final ValueSupplier<? extends V> value) {
+    if (tti == null) {
+      return null;
+    }
+    Prepared current = prepared.get();
+    Duration duration = current.access;
+    if (duration == null) {
+      return Duration.of(tti.nextInMs(), TimeUnit.MILLISECONDS);
+    }
+    current.access = null;
+    return duration;
+  }
+
+  @Override
+  public Duration getExpiryForUpdate(final K key, final ValueSupplier<? extends V> oldValue, final V newValue) {
+    return creation();
+  }
+
+  private Duration creation() {
+    Prepared current = prepared.get();
+    Duration duration = current.creation;
+    if (duration == null) {
+      return Duration.of(ttl.nextInMs(), TimeUnit.MILLISECONDS);
+    }
+    current.creation = null;
+    return duration;
+  }
+
+  private int slot(final K key) {
+    return (key.hashCode() & Integer.MAX_VALUE) % deadlines.length();
+  }
+
+  public String getDescription() {
+    return "TTL " + ttl.getDescription() + (tti == null ? "" : ", TTI " + tti.getDescription());
+  }
+
+  private static final class Prepared {
+    private Duration creation;
+    private Duration access;
+  }
+}
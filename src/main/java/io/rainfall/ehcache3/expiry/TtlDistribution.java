@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache3.expiry;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distribution of the time to live (or time to idle) given to the entries, see {@link TrackingExpiry}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public abstract class TtlDistribution {
+
+  /**
+   * @return the next time to live, in ms, at least 1ms
+   */
+  public abstract long nextInMs();
+
+  public abstract String getDescription();
+
+  public static TtlDistribution fixed(final long ttl, final TimeUnit timeUnit) {
+    final long ttlInMs = toMs(ttl, timeUnit);
+    return new TtlDistribution() {
+      @Override
+      public long nextInMs() {
+        return ttlInMs;
+      }
+
+      @Override
+      public String getDescription() {
+        return ttlInMs + " ms";
+      }
+    };
+  }
+
+  public static TtlDistribution uniform(final long min, final long max, final TimeUnit timeUnit) {
+    final long minInMs = toMs(min, timeUnit);
+    final long maxInMs = toMs(max, timeUnit);
+    if (maxInMs < minInMs) {
+      throw new IllegalArgumentException("Max TTL must not be lower than min TTL");
+    }
+    return new TtlDistribution() {
+      @Override
+      public long nextInMs() {
+        return ThreadLocalRandom.current().nextLong(minInMs, maxInMs + 1);
+      }
+
+      @Override
+      public String getDescription() {
+        return "uniform between " + minInMs + " and " + maxInMs + " ms";
+      }
+    };
+  }
+
+  public static TtlDistribution exponential(final long mean, final TimeUnit timeUnit) {
+    final long meanInMs = toMs(mean, timeUnit);
+    return new TtlDistribution() {
+      @Override
+      public long nextInMs() {
+        return Math.max(1L, (long)(-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanInMs));
+      }
+
+      @Override
+      public String getDescription() {
+        return "exponential with a mean of " + meanInMs + " ms";
+      }
+    };
+  }
+
+  private static long toMs(final long ttl, final TimeUnit timeUnit) {
+    if (ttl <= 0) {
+      throw new IllegalArgumentException("TTL must be strictly positive");
+    }
+    return Math.max(1L, timeUnit.toMillis(ttl));
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache3.loaderwriter;
+
+/**
+ * Tells an operation whether the cache call it just made went through the loader.
+ * <p>
+ * Ehcache 3 loads on the thread calling the cache, so the loader marks the current thread and the operation
+ * checks the mark after its call. {@link SimulatedSystemOfRecord} does it, another loader can call
+ * {@link #markLoaded()} to get its loads reported.
+ *
+ * @author Aurelien Broszniowski
+ */
+public final class LoadTracking {
+
+  private static final ThreadLocal<boolean[]> LOADED = ThreadLocal.withInitial(() -> new boolean[1]);
+
+  private LoadTracking() {
+  }
+
+  public static void markLoaded() {
+    LOADED.get()[0] = true;
+  }
+
+  /**
+   * @return true if the current thread loaded since the last call, and clears the mark
+   */
+  public static boolean loaded() {
+    boolean[] loaded = LOADED.get();
+    boolean result = loaded[0];
+    loaded[0] = false;
+    return result;
+  }
+}
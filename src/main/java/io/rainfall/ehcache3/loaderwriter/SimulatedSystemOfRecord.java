@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache3.loaderwriter;
+
+import io.rainfall.ObjectGenerator;
+import org.ehcache.spi.loaderwriter.CacheLoaderWriter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process stand-in for the system of record behind an Ehcache 3 {@link CacheLoaderWriter}.
+ * <p>
+ * Every call, single or bulk, is one round trip to the system of record : it waits for one of the
+ * {@link #maxConcurrency(int)} connections, takes a latency drawn from the configured distribution, and fails with
+ * the configured probability. Written values are kept, keys never written are loaded with a generated value,
+ * seeded with the key.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class SimulatedSystemOfRecord<K, V> implements CacheLoaderWriter<K, V> {
+
+  public enum LatencyDistribution {
+    /** always the configured latency */
+    FIXED,
+    /** uniform between 0 and twice the configured latency */
+    UNIFORM,
+    /** exponential with the configured latency as its mean, i.e. a long tail */
+    EXPONENTIAL
+  }
+
+  private final ObjectGenerator<V> valueGenerator;
+  private final Map<K, V> store = new ConcurrentHashMap<K, V>();
+  private long latencyInNs = 0;
+  private LatencyDistribution distribution = LatencyDistribution.FIXED;
+  private Semaphore connections = null;
+  private int maxConcurrency = 0;
+  private double failureRate = 0;
+  private WriteBehindTracker writeBehindTracker = null;
+
+  private final LongAdder loads = new LongAdder();
+  private final LongAdder writes = new LongAdder();
+  private final LongAdder deletes = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+
+  public SimulatedSystemOfRecord(final ObjectGenerator<V> valueGenerator) {
+    this.valueGenerator = valueGenerator;
+  }
+
+  public static <K, V> SimulatedSystemOfRecord<K, V> systemOfRecord(final ObjectGenerator<V> valueGenerator) {
+    return new SimulatedSystemOfRecord<K, V>(valueGenerator);
+  }
+
+  public SimulatedSystemOfRecord<K, V> latency(final long latency, final TimeUnit timeUnit) {
+    if (latency < 0) {
+      throw new IllegalArgumentException("Latency must be positive");
+    }
+    this.latencyInNs = timeUnit.toNanos(latency);
+    return this;
+  }
+
+  public SimulatedSystemOfRecord<K, V> distribution(final LatencyDistribution distribution) {
+    this.distribution = distribution;
+    return this;
+  }
+
+  public SimulatedSystemOfRecord<K, V> maxConcurrency(final int maxConcurrency) {
+    if (maxConcurrency <= 0) {
+      throw new IllegalArgumentException("Max concurrency must be strictly positive");
+    }
+    this.maxConcurrency = maxConcurrency;
+    this.connections = new Semaphore(maxConcurrency, true);
+    return this;
+  }
+
+  public SimulatedSystemOfRecord<K, V> failureRate(final double failureRate) {
+    if (failureRate < 0 || failureRate > 1) {
+      throw new IllegalArgumentException("Failure rate must be between 0 and 1");
+    }
+    this.failureRate = failureRate;
+    return this;
+  }
+
+  /**
+   * Reports the writes of a write-behind cache to the tracker, once they are stored in the system of record, with
+   * the time the writer was called. The keys of the failed writes are reported as discarded, the write-behind queue
+   * doesn't retry them.
+   */
+  public SimulatedSystemOfRecord<K, V> trackedBy(final WriteBehindTracker writeBehindTracker) {
+    this.writeBehindTracker = writeBehindTracker;
+    return this;
+  }
+
+  @Override
+  public V load(final K key) throws Exception {
+    LoadTracking.markLoaded();
+    roundTrip();
+    loads.increment();
+    return valueOf(key);
+  }
+
+  @Override
+  public Map<K, V> loadAll(final Iterable<? extends K> keys) throws Exception {
+    LoadTracking.markLoaded();
+    roundTrip();
+    Map<K, V> values = new HashMap<K, V>();
+    for (K key : keys) {
+      loads.increment();
+      values.put(key, valueOf(key));
+    }
+    return values;
+  }
+
+  @Override
+  public void write(final K key, final V value) throws Exception {
+    long writeTime = System.nanoTime();
+    WriteBehindTracker tracker = this.writeBehindTracker;
+    try {
+      roundTrip();
+    } catch (Exception e) {
+      if (tracker != null) {
+        tracker.discard(key);
+      }
+      throw e;
+    }
+    writes.increment();
+    store.put(key, value);
+    if (tracker != null) {
+      tracker.written(key, writeTime);
+    }
+  }
+
+  @Override
+  public void writeAll(final Iterable<? extends Map.Entry<? extends K, ? extends V>> entries) throws Exception {
+    long writeTime = System.nanoTime();
+    WriteBehindTracker tracker = this.writeBehindTracker;
+    try {
+      roundTrip();
+    } catch (Exception e) {
+      if (tracker != null) {
+        for (Map.Entry<? extends K, ? extends V> entry : entries) {
+          tracker.discard(entry.getKey());
+        }
+      }
+      throw e;
+    }
+    int size = 0;
+    for (Map.Entry<? extends K, ? extends V> entry : entries) {
+      writes.increment();
+      store.put(entry.getKey(), entry.getValue());
+      if (tracker != null) {
+        tracker.written(entry.getKey(), writeTime);
+      }
+      size++;
+    }
+    if (tracker != null) {
+      tracker.batch(size);
+    }
+  }
+
+  @Override
+  public void delete(final K key) throws Exception {
+    roundTrip();
+    deletes.increment();
+    store.remove(key);
+  }
+
+  @Override
+  public void deleteAll(final Iterable<? extends K> keys) throws Exception {
+    roundTrip();
+    for (K key : keys) {
+      deletes.increment();
+      store.remove(key);
+    }
+  }
+
+  private V valueOf(final K key) {
+    V value = store.get(key);
+    if (value == null) {
+      value = valueGenerator.generate(key instanceof Number ? ((Number)key).longValue() : (long)key.hashCode());
+    }
+    return value;
+  }
+
+  private void roundTrip() throws Exception {
+    Semaphore connections = this.connections;
+    if (connections != null) {
+      connections.acquire();
+    }
+    try {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      long latency;
+      switch (distribution) {
+        case UNIFORM:
+          latency = (long)(random.nextDouble() * 2 * latencyInNs);
+          break;
+        case EXPONENTIAL:
+          latency = (long)(-Math.log(1 - random.nextDouble()) * latencyInNs);
+          break;
+        default:
+          latency = latencyInNs;
+          break;
+      }
+      long end = System.nanoTime() + latency;
+      for (long remaining = latency; remaining > 0; remaining = end - System.nanoTime()) {
+        LockSupport.parkNanos(remaining);
+      }
+      if (failureRate > 0 && random.nextDouble() < failureRate) {
+        failures.increment();
+        throw new Exception("Simulated system of record failure");
+      }
+    } finally {
+      if (connections != null) {
+        connections.release();
+      }
+    }
+  }
+
+  public long getLoadCount() {
+    return loads.sum();
+  }
+
+  public long getWriteCount() {
+    return writes.sum();
+  }
+
+  public long getDeleteCount() {
+    return deletes.sum();
+  }
+
+  public long getFailureCount() {
+    return failures.sum();
+  }
+
+  public String getDescription() {
+    return "System of record : " + distribution + " latency of " + TimeUnit.NANOSECONDS.toMicros(latencyInNs) + " us, "
+           + (maxConcurrency > 0 ? maxConcurrency + " connections, " : "no connection limit, ")
+           + Math.round(failureRate * 10000) / 100.0 + "% failures";
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache3.loaderwriter;
+
+import io.rainfall.ehcache.execution.Sampled;
+import io.rainfall.ehcache.statistics.Instruments;
+import org.HdrHistogram.Histogram;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.rainfall.ehcache.statistics.Instruments.Unit.NANOSECONDS;
+
+/**
+ * Measures how far the write-behind queue of one cache falls behind.
+ * <p>
+ * The write-behind put operation notes when each key is put, and the writer (see
+ * {@link SimulatedSystemOfRecord#trackedBy(WriteBehindTracker)}) notes when the key is stored and the size of each
+ * batch. A key whose put or write failed is discarded, without a lag. The time from the put to the call of the
+ * writer, which leaves out the latency of the write itself, is registered in the {@link Instruments}, in ns, under
+ * the name of the tracker followed by "-lag". Repeated puts of a key not written yet are coalesced, as in the
+ * write-behind queue, and the lag is measured from the first put.
+ * <p>
+ * While the execution it samples runs (see {@link Sampled}), every period, the queue depth (keys put and not written
+ * yet), the number of entries written, single or batched, the number of batches, their average size and the highest
+ * lag of the interval are appended to a write-behind-&lt;name&gt;.csv file. Each following run (e.g. the measured
+ * run after a warmup) has its own file, write-behind-&lt;name&gt;-2.csv, then -3...
+ *
+ * @author Aurelien Broszniowski
+ */
+public class WriteBehindTracker implements Sampled.Sampler, Closeable {
+
+  private final String name;
+  private final long periodInNs;
+  private final File directory;
+  private final Map<Object, Long> pending = new ConcurrentHashMap<Object, Long>();
+  private final LongAdder written = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder batchedEntries = new LongAdder();
+  private final AtomicLong maxLag = new AtomicLong();
+  private final Histogram lags;
+  private final Object reportLock = new Object();
+  private ScheduledExecutorService sampler;
+  private PrintWriter out;
+  private int runs = 0;
+  private long startTime;
+  private long lastWritten;
+  private long lastBatches;
+  private long lastBatchedEntries;
+
+  public WriteBehindTracker(final String name, final long period, final TimeUnit timeUnit, final File directory,
+                            final Instruments instruments) {
+    if (period <= 0) {
+      throw new IllegalArgumentException("Sampling period must be strictly positive");
+    }
+    this.name = name;
+    this.periodInNs = timeUnit.toNanos(period);
+    this.directory = directory;
+    this.lags = instruments.register(name + "-lag", NANOSECONDS);
+  }
+
+  public static WriteBehindTracker writeBehind(final String name, final long period, final TimeUnit timeUnit,
+                                               final String directory, final Instruments instruments) {
+    return new WriteBehindTracker(name, period, timeUnit, new File(directory), instruments);
+  }
+
+  /**
+   * Starts sampling, in the report file of the next run.
+   */
+  @Override
+  public synchronized void start() {
+    if (sampler != null) {
+      return;
+    }
+    directory.mkdirs();
+    runs++;
+    String fileName = "write-behind-" + name + (runs == 1 ? "" : "-" + runs) + ".csv";
+    try {
+      out = new PrintWriter(new File(directory, fileName), "UTF-8");
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Can not create the write-behind report of " + name, e);
+    }
+    out.println("time (ms),queue depth,written,batches,average batch size,max lag (ms)");
+    startTime = System.nanoTime();
+    lastWritten = written.sum();
+    lastBatches = batches.sum();
+    lastBatchedEntries = batchedEntries.sum();
+    maxLag.set(0);
+    sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "Rainfall-ehcache write-behind sampler " + name);
+      thread.setDaemon(true);
+      return thread;
+    });
+    sampler.scheduleAtFixedRate(this::sample, periodInNs, periodInNs, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Called by the put operation, before the put.
+   *
+   * @return the put time noted for the key, or null if an earlier put of the key is not written yet
+   */
+  public Long put(final Object key) {
+    Long stamp = System.nanoTime();
+    return pending.putIfAbsent(key, stamp) == null ? stamp : null;
+  }
+
+  /**
+   * Called by the put operation when the put failed, with the put time returned by {@link #put(Object)}.
+   */
+  public void discard(final Object key, final Long stamp) {
+    if (stamp != null) {
+      pending.remove(key, stamp);
+    }
+  }
+
+  /**
+   * Called by the writer when the write of a key failed.
+   */
+  public void discard(final Object key) {
+    pending.remove(key);
+  }
+
+  /**
+   * Called by the writer once a key is stored, with the time the writer was called.
+   */
+  public void written(final Object key, final long writeTime) {
+    written.increment();
+    Long putTime = pending.remove(key);
+    if (putTime != null) {
+      long lag = Math.max(0, writeTime - putTime);
+      lags.recordValue(lag);
+      maxLag.accumulateAndGet(lag, Math::max);
+    }
+  }
+
+  /**
+   * Called by the writer once a batch is stored.
+   */
+  public void batch(final int size) {
+    batches.increment();
+    batchedEntries.add(size);
+  }
+
+  public int getQueueDepth() {
+    return pending.size();
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  private void sample() {
+    synchronized (reportLock) {
+      long writtenNow = written.sum();
+      long batchesNow = batches.sum();
+      long batchedEntriesNow = batchedEntries.sum();
+      long intervalWritten = writtenNow - lastWritten;
+      long intervalBatches = batchesNow - lastBatches;
+      long intervalBatchedEntries = batchedEntriesNow - lastBatchedEntries;
+      lastWritten = writtenNow;
+      lastBatches = batchesNow;
+      lastBatchedEntries = batchedEntriesNow;
+      out.println(String.format(Locale.ROOT, "%d,%d,%d,%d,%.2f,%.3f",
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), pending.size(), intervalWritten, intervalBatches,
+          intervalBatches == 0 ? 0.0 : (double)intervalBatchedEntries / intervalBatches, maxLag.getAndSet(0) / 1_000_000.0));
+      out.flush();
+    }
+  }
+
+  /**
+   * Stops sampling, takes a last sample and closes the report file.
+   */
+  @Override
+  public synchronized void stop() {
+    if (sampler != null) {
+      sampler.shutdown();
+      try {
+        sampler.awaitTermination(periodInNs, TimeUnit.NANOSECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      sample();
+      out.close();
+      sampler = null;
+    }
+  }
+
+  @Override
+  public void close() {
+    stop();
+  }
+}
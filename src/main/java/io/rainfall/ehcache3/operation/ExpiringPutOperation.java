@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache3.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.ObjectGenerator;
+import io.rainfall.SequenceGenerator;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.execution.ScheduledStart;
+import io.rainfall.ehcache3.CacheDefinition;
+import io.rainfall.ehcache3.expiry.TrackingExpiry;
+import io.rainfall.ehcache3.expiry.TtlDistribution;
+import io.rainfall.statistics.StatisticsHolder;
+import org.ehcache.Cache;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUT;
+
+/**
+ * Execute and measure a Ehcache put operation, giving the entries a time to live drawn from its own
+ * {@link TtlDistribution}.
+ * <p>
+ * Ehcache 3 has no per-put time to live, the caches must be configured with the {@link TrackingExpiry} passed
+ * here. The time to live is drawn before the put is timed, and the deadline of the key is stamped after it, so
+ * that only the expiry computation of Ehcache is measured. Several weighted put operations can then mix
+ * short-lived and long-lived entries in the same cache.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ExpiringPutOperation<K, V> extends PutOperation<K, V> {
+
+  private final TrackingExpiry<K, ?> expiry;
+  private final TtlDistribution ttl;
+
+  public ExpiringPutOperation(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
+                              final SequenceGenerator sequenceGenerator, final Iterable<CacheDefinition<K, V>> caches,
+                              final TrackingExpiry<K, ?> expiry, final TtlDistribution ttl) {
+    super(keyGenerator, valueGenerator, sequenceGenerator, caches);
+    this.expiry = expiry;
+    this.ttl = ttl;
+  }
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>, Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+    final long next = this.sequenceGenerator.next();
+    for (final CacheDefinition<K, V> cacheDefinition : cacheDefinitions) {
+      Cache<K, V> cache = cacheDefinition.getCache();
+
+      K k = keyGenerator.generate(next);
+      V v = valueGenerator.generate(next);
+      long ttlInMs = expiry.prepare(ttl);
+      long now = expiry.now();
+      long start = ScheduledStart.getTimeInNs(statisticsHolder);
+      try {
+        cache.put(k, v);
+        long end = statisticsHolder.getTimeInNs();
+        cacheDefinition.record(statisticsHolder, (end - start), PUT);
+        expiry.expiresAt(k, now + ttlInMs);
+      } catch (Exception e) {
+        long end = statisticsHolder.getTimeInNs();
+        cacheDefinition.record(statisticsHolder, (end - start), EXCEPTION);
+      } finally {
+        expiry.clearPrepared();
+      }
+    }
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = super.getDescription();
+    desc.add("TTL " + ttl.getDescription());
+    return desc;
+  }
+}
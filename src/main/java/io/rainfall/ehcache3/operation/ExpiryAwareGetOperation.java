@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache3.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.ObjectGenerator;
+import io.rainfall.SequenceGenerator;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.execution.ScheduledStart;
+import io.rainfall.ehcache3.CacheDefinition;
+import io.rainfall.ehcache3.expiry.TrackingExpiry;
+import io.rainfall.statistics.StatisticsHolder;
+import org.ehcache.Cache;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
+import static io.rainfall.ehcache.statistics.EhcacheResult.MISS_ABSENT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.MISS_EXPIRED;
+
+/**
+ * Execute and measure a Ehcache get operation on caches configured with a {@link TrackingExpiry}.
+ * <p>
+ * A miss is recorded as {@link io.rainfall.ehcache.statistics.EhcacheResult#MISS_EXPIRED} when the entry was put
+ * and its expiry time has passed, as {@link io.rainfall.ehcache.statistics.EhcacheResult#MISS_ABSENT} otherwise
+ * (never put, or evicted before it expired). The expiry is compared with the cache time once the get is timed.
+ * With a time to idle, the deadline of a hit is pushed back after the get, like Ehcache does inside it.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ExpiryAwareGetOperation<K, V> extends GetOperation<K, V> {
+
+  private final TrackingExpiry<K, ?> expiry;
+
+  public ExpiryAwareGetOperation(final ObjectGenerator<K> keyGenerator, final SequenceGenerator sequenceGenerator,
+                                 final Iterable<CacheDefinition<K, V>> cacheDefinitions,
+                                 final TrackingExpiry<K, ?> expiry) {
+    super(keyGenerator, sequenceGenerator, cacheDefinitions);
+    this.expiry = expiry;
+  }
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
+      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    final long next = sequenceGenerator.next();
+    for (final CacheDefinition<K, V> cacheDefinition : cacheDefinitions) {
+      Cache<K, V> cache = cacheDefinition.getCache();
+
+      K k = keyGenerator.generate(next);
+      V value;
+      long ttiInMs = expiry.prepareAccess();
+      long now = expiry.now();
+
+      long start = ScheduledStart.getTimeInNs(statisticsHolder);
+      try {
+        value = cache.get(k);
+        long end = statisticsHolder.getTimeInNs();
+        if (value != null) {
+          cacheDefinition.record(statisticsHolder, (end - start), GET);
+          if (ttiInMs >= 0) {
+            expiry.expiresAt(k, now + ttiInMs);
+          }
+        } else if (expiry.hasExpired(k)) {
+          cacheDefinition.record(statisticsHolder, (end - start), MISS_EXPIRED);
+        } else {
+          cacheDefinition.record(statisticsHolder, (end - start), MISS_ABSENT);
+        }
+      } catch (Exception e) {
+        long end = statisticsHolder.getTimeInNs();
+        cacheDefinition.record(statisticsHolder, (end - start), EXCEPTION);
+      } finally {
+        expiry.clearPrepared();
+      }
+    }
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = super.getDescription();
+    desc.set(0, "expiry-aware " + desc.get(0));
+    desc.add(expiry.getDescription());
+    return desc;
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache3.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.ObjectGenerator;
+import io.rainfall.SequenceGenerator;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.operation.FanOut;
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.ehcache3.CacheDefinition;
+import io.rainfall.statistics.StatisticsHolder;
+import org.ehcache.Cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
+import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
+
+/**
+ * Execute and measure a Ehcache get operation on all the caches concurrently, see {@link FanOut}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class FanOutGetOperation<K, V> extends GetOperation<K, V> {
+
+  private final FanOut fanOut;
+  private final List<CacheDefinition<K, V>> caches = new ArrayList<CacheDefinition<K, V>>();
+  private final FanOut.Task<K, V> task = this::get;
+
+  public FanOutGetOperation(final ObjectGenerator<K> keyGenerator, final SequenceGenerator sequenceGenerator,
+                            final Iterable<CacheDefinition<K, V>> cacheDefinitions, final FanOut fanOut) {
+    super(keyGenerator, sequenceGenerator, cacheDefinitions);
+    for (CacheDefinition<K, V> cacheDefinition : cacheDefinitions) {
+      caches.add(cacheDefinition);
+    }
+    if (caches.isEmpty()) {
+      throw new IllegalArgumentException("At least one cache must be given to the fan-out");
+    }
+    this.fanOut = fanOut;
+  }
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
+      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    final long next = sequenceGenerator.next();
+    fanOut.execute(statisticsHolder, task, caches.size(), keyGenerator.generate(next), null);
+  }
+
+  private EhcacheResult get(final StatisticsHolder statisticsHolder, final int cacheIndex, final K k, final V ignored,
+                            final long start) {
+    CacheDefinition<K, V> cacheDefinition = caches.get(cacheIndex);
+    Cache<K, V> cache = cacheDefinition.getCache();
+    try {
+      V value = cache.get(k);
+      long end = statisticsHolder.getTimeInNs();
+      if (value == null) {
+        cacheDefinition.record(statisticsHolder, (end - start), MISS);
+        return MISS;
+      } else {
+        cacheDefinition.record(statisticsHolder, (end - start), GET);
+        return GET;
+      }
+    } catch (Exception e) {
+      long end = statisticsHolder.getTimeInNs();
+      cacheDefinition.record(statisticsHolder, (end - start), EXCEPTION);
+      return EXCEPTION;
+    }
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = super.getDescription();
+    desc.add("Fanned out to all caches concurrently, end-to-end latency reported as " + fanOut.getName());
+    return desc;
+  }
+}
@@ -18,29 +18,32 @@ package io.rainfall.ehcache3.operation;
 
 import io.rainfall.AssertionEvaluator;
 import io.rainfall.Configuration;
-import io.rainfall.EhcacheOperation;
 import io.rainfall.ObjectGenerator;
 import io.rainfall.Operation;
 import io.rainfall.SequenceGenerator;
 import io.rainfall.TestException;
-import io.rainfall.ehcache.statistics.EhcacheResult;
-import io.rainfall.ehcache3.CacheConfig;
+import io.rainfall.ehcache.execution.ScheduledStart;
+import io.rainfall.ehcache.generator.BatchSequence;
 import io.rainfall.ehcache3.CacheDefinition;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
 
 import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
 import static io.rainfall.ehcache.statistics.EhcacheResult.GETALL;
 import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
 
 /**
+ * Execute and measure a Ehcache getAll operation on a batch of distinct keys.
+ * <p>
+ * The latency of the call is amortized over the keys of the batch, and one result is recorded per key, so that
+ * the reported latency and throughput are per key and can be compared with the single key operations.
+ *
  * @author Aurelien Broszniowski
  */
 public class GetAllOperation<K, V> implements Operation {
@@ -48,13 +51,24 @@ public class GetAllOperation<K, V> implements Operation {
   private final ObjectGenerator<K> keyGenerator;
   private final SequenceGenerator sequenceGenerator;
   private final int bulkBatchSize;
+  private final BatchSequence batchSequence;
   private final Iterable<CacheDefinition<K, V>> cacheDefinitions;
 
   public GetAllOperation(final ObjectGenerator<K> keyGenerator, final SequenceGenerator sequenceGenerator,
                          final int bulkBatchSize, final Iterable<CacheDefinition<K, V>> cacheDefinitions) {
+    this(keyGenerator, sequenceGenerator, bulkBatchSize, BatchSequence.fromDistribution(), cacheDefinitions);
+  }
+
+  public GetAllOperation(final ObjectGenerator<K> keyGenerator, final SequenceGenerator sequenceGenerator,
+                         final int bulkBatchSize, final BatchSequence batchSequence,
+                         final Iterable<CacheDefinition<K, V>> cacheDefinitions) {
+    if (bulkBatchSize <= 0) {
+      throw new IllegalArgumentException("Bulk batch size must be strictly positive");
+    }
     this.keyGenerator = keyGenerator;
     this.sequenceGenerator = sequenceGenerator;
     this.bulkBatchSize = bulkBatchSize;
+    this.batchSequence = batchSequence;
     this.cacheDefinitions = cacheDefinitions;
   }
 
@@ -62,31 +76,36 @@ public class GetAllOperation<K, V> implements Operation {
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
-    final long next = this.sequenceGenerator.next();
-    Set<K> set = Collections.newSetFromMap(new WeakHashMap<K, Boolean>());
-    for (int i = 0; i < bulkBatchSize; i++) {
-      set.add(keyGenerator.generate(next));
+    final long first = this.sequenceGenerator.next();
+    Set<K> keys = new HashSet<K>();
+    for (int i = 0; keys.size() < bulkBatchSize && i < bulkBatchSize * BatchSequence.MAX_DRAWS_PER_KEY; i++) {
+      keys.add(keyGenerator.generate(batchSequence.seed(sequenceGenerator, first, i)));
     }
+    final int keyCount = keys.size();
 
     for (final CacheDefinition<K, V> cacheDefinition : cacheDefinitions) {
       Cache<K, V> cache = cacheDefinition.getCache();
       Map<K, V> all;
-      long start = statisticsHolder.getTimeInNs();
+      long start = ScheduledStart.getTimeInNs(statisticsHolder);
       try {
-        all = cache.getAll(set);
+        all = cache.getAll(keys);
         long end = statisticsHolder.getTimeInNs();
-        EhcacheResult result = GETALL;
+        long latencyPerKey = (end - start) / keyCount;
+        int hits = 0;
         for (V v : all.values()) {
-          if (v == null) {
-            result = MISS;
-            break;
+          if (v != null) {
+            hits++;
           }
         }
-        statisticsHolder.record(cacheDefinition.getName(), (end - start), result);
-
+        for (int i = 0; i < keyCount; i++) {
+          cacheDefinition.record(statisticsHolder, latencyPerKey, i < hits ? GETALL : MISS);
+        }
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheDefinition.getName(), (end - start), EXCEPTION);
+        long latencyPerKey = (end - start) / keyCount;
+        for (int i = 0; i < keyCount; i++) {
+          cacheDefinition.record(statisticsHolder, latencyPerKey, EXCEPTION);
+        }
       }
     }
   }
@@ -96,6 +115,7 @@ public class GetAllOperation<K, V> implements Operation {
     List<String> desc = new ArrayList<String>();
     desc.add("getAll(Set<? extends " + keyGenerator.getDescription() + "> keys)");
     desc.add(sequenceGenerator.getDescription());
+    desc.add(bulkBatchSize + " keys per " + batchSequence.getDescription() + ", measured per key");
     return desc;
   }
 }
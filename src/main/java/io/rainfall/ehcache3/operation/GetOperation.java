@@ -22,7 +22,9 @@ import io.rainfall.ObjectGenerator;
 import io.rainfall.Operation;
 import io.rainfall.SequenceGenerator;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.execution.ScheduledStart;
 import io.rainfall.ehcache3.CacheDefinition;
+import io.rainfall.ehcache3.statistics.TierHits;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
 
@@ -33,6 +35,7 @@ import java.util.Map;
 import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
 import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
 import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
  * @author Aurelien Broszniowski
@@ -42,12 +45,23 @@ public class GetOperation<K, V> implements Operation {
   protected final ObjectGenerator<K> keyGenerator;
   protected final SequenceGenerator sequenceGenerator;
   protected final Iterable<CacheDefinition<K, V>> cacheDefinitions;
+  protected final TierHits tierHits;
 
   public GetOperation(final ObjectGenerator<K> keyGenerator,
                       final SequenceGenerator sequenceGenerator, final Iterable<CacheDefinition<K, V>> cacheDefinitions) {
+    this(keyGenerator, sequenceGenerator, cacheDefinitions, null);
+  }
+
+  /**
+   * @param tierHits if not null, the caches are registered to it, and it samples which tier served the hits while
+   *                 the execution runs, see {@link io.rainfall.ehcache.execution.Sampled}
+   */
+  public GetOperation(final ObjectGenerator<K> keyGenerator, final SequenceGenerator sequenceGenerator,
+                      final Iterable<CacheDefinition<K, V>> cacheDefinitions, final TierHits tierHits) {
     this.keyGenerator = keyGenerator;
     this.sequenceGenerator = sequenceGenerator;
     this.cacheDefinitions = cacheDefinitions;
+    this.tierHits = tierHits == null ? null : tierHits.track(cacheDefinitions);
   }
 
   @Override
@@ -61,18 +75,18 @@ public class GetOperation<K, V> implements Operation {
       K k = keyGenerator.generate(next);
       V value;
 
-      long start = statisticsHolder.getTimeInNs();
+      long start = ScheduledStart.getTimeInNs(statisticsHolder);
       try {
         value = cache.get(k);
         long end = statisticsHolder.getTimeInNs();
         if (value == null) {
-          statisticsHolder.record(cacheDefinition.getName(), (end - start), MISS);
+          cacheDefinition.record(statisticsHolder, (end - start), MISS);
         } else {
-          statisticsHolder.record(cacheDefinition.getName(), (end - start), GET);
+          cacheDefinition.record(statisticsHolder, (end - start), GET);
         }
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheDefinition.getName(), (end - start), EXCEPTION);
+        cacheDefinition.record(statisticsHolder, (end - start), EXCEPTION);
       }
     }
   }
@@ -82,6 +96,9 @@ public class GetOperation<K, V> implements Operation {
     List<String> desc = new ArrayList<String>();
     desc.add("get(" + keyGenerator.getDescription() + " key)");
     desc.add(sequenceGenerator.getDescription());
+    if (tierHits != null) {
+      desc.add("Tier hits sampled every " + NANOSECONDS.toMillis(tierHits.getPeriodInNs()) + " ms");
+    }
     return desc;
   }
 }
@@ -6,19 +6,25 @@ import io.rainfall.ObjectGenerator;
 import io.rainfall.Operation;
 import io.rainfall.SequenceGenerator;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.execution.ScheduledStart;
+import io.rainfall.ehcache.generator.BatchSequence;
 import io.rainfall.ehcache3.CacheDefinition;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
 
 import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
 import static io.rainfall.ehcache.statistics.EhcacheResult.PUTALL;
 
 /**
+ * Execute and measure a Ehcache putAll operation on a batch of distinct keys.
+ * <p>
+ * The latency of the call is amortized over the keys of the batch, and one result is recorded per key.
+ *
  * @author Aurelien Broszniowski
  */
 public class PutAllOperation<K, V> implements Operation {
@@ -27,14 +33,25 @@ public class PutAllOperation<K, V> implements Operation {
   private final ObjectGenerator<V> valueGenerator;
   private final SequenceGenerator sequenceGenerator;
   private final int bulkBatchSize;
+  private final BatchSequence batchSequence;
   private final Iterable<CacheDefinition<K, V>> cacheDefinitions;
 
   public PutAllOperation(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
                          final SequenceGenerator sequenceGenerator, final int bulkBatchSize, final Iterable<CacheDefinition<K, V>> caches) {
+    this(keyGenerator, valueGenerator, sequenceGenerator, bulkBatchSize, BatchSequence.fromDistribution(), caches);
+  }
+
+  public PutAllOperation(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
+                         final SequenceGenerator sequenceGenerator, final int bulkBatchSize, final BatchSequence batchSequence,
+                         final Iterable<CacheDefinition<K, V>> caches) {
+    if (bulkBatchSize <= 0) {
+      throw new IllegalArgumentException("Bulk batch size must be strictly positive");
+    }
     this.keyGenerator = keyGenerator;
     this.valueGenerator = valueGenerator;
     this.sequenceGenerator = sequenceGenerator;
     this.bulkBatchSize = bulkBatchSize;
+    this.batchSequence = batchSequence;
     this.cacheDefinitions = caches;
   }
 
@@ -42,22 +59,30 @@ public class PutAllOperation<K, V> implements Operation {
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
 
-    final long next = this.sequenceGenerator.next();
-    Map<K, V> maps = new WeakHashMap<K, V>();
-    for (int i = 0; i < bulkBatchSize; i++) {
-      maps.put(keyGenerator.generate(next), valueGenerator.generate(next));
+    final long first = this.sequenceGenerator.next();
+    Map<K, V> entries = new HashMap<K, V>();
+    for (int i = 0; entries.size() < bulkBatchSize && i < bulkBatchSize * BatchSequence.MAX_DRAWS_PER_KEY; i++) {
+      long seed = batchSequence.seed(sequenceGenerator, first, i);
+      entries.put(keyGenerator.generate(seed), valueGenerator.generate(seed));
     }
+    final int keyCount = entries.size();
 
     for (final CacheDefinition<K, V> cacheDefinition : cacheDefinitions) {
       Cache<K, V> cache = cacheDefinition.getCache();
-      long start = statisticsHolder.getTimeInNs();
+      long start = ScheduledStart.getTimeInNs(statisticsHolder);
       try {
-        cache.putAll(maps);
+        cache.putAll(entries);
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheDefinition.getName(), (end - start), PUTALL);
+        long latencyPerKey = (end - start) / keyCount;
+        for (int i = 0; i < keyCount; i++) {
+          cacheDefinition.record(statisticsHolder, latencyPerKey, PUTALL);
+        }
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheDefinition.getName(), (end - start), EXCEPTION);
+        long latencyPerKey = (end - start) / keyCount;
+        for (int i = 0; i < keyCount; i++) {
+          cacheDefinition.record(statisticsHolder, latencyPerKey, EXCEPTION);
+        }
       }
     }
   }
@@ -68,6 +93,7 @@ public class PutAllOperation<K, V> implements Operation {
     desc.add("putAll(Map<? extends " + keyGenerator.getDescription() + ", ? extends "
              + valueGenerator.getDescription() + "> entries)");
     desc.add(sequenceGenerator.getDescription());
+    desc.add(bulkBatchSize + " keys per " + batchSequence.getDescription() + ", measured per key");
     return desc;
   }
 }
@@ -22,6 +22,7 @@ import io.rainfall.ObjectGenerator;
 import io.rainfall.Operation;
 import io.rainfall.SequenceGenerator;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.execution.ScheduledStart;
 import io.rainfall.ehcache3.CacheDefinition;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
@@ -62,18 +63,18 @@ public class PutIfAbsentOperation<K, V> implements Operation {
       K k = keyGenerator.generate(next);
       V v1 = valueGenerator.generate(next);
 
-      long start = statisticsHolder.getTimeInNs();
+      long start = ScheduledStart.getTimeInNs(statisticsHolder);
       try {
         v = cache.putIfAbsent(k, v1);
         long end = statisticsHolder.getTimeInNs();
         if (v != null) {
-          statisticsHolder.record(cacheDefinition.getName(), (end - start), PUTIFABSENT_MISS);
+          cacheDefinition.record(statisticsHolder, (end - start), PUTIFABSENT_MISS);
         } else {
-          statisticsHolder.record(cacheDefinition.getName(), (end - start), PUTIFABSENT);
+          cacheDefinition.record(statisticsHolder, (end - start), PUTIFABSENT);
         }
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheDefinition.getName(), (end - start), EXCEPTION);
+        cacheDefinition.record(statisticsHolder, (end - start), EXCEPTION);
       }
     }
   }
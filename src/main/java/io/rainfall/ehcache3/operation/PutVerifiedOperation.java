@@ -5,6 +5,8 @@ import io.rainfall.Configuration;
 import io.rainfall.ObjectGenerator;
 import io.rainfall.SequenceGenerator;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.execution.Sampled;
+import io.rainfall.ehcache.execution.ScheduledStart;
 import io.rainfall.ehcache3.CacheDefinition;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
@@ -14,26 +16,105 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
 
 import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
 import static io.rainfall.ehcache.statistics.EhcacheResult.PUT;
+import static io.rainfall.ehcache.statistics.EhcacheResult.VERIFICATION_SKIPPED;
+import static io.rainfall.ehcache.statistics.EhcacheResult.VERIFIED;
 
 /**
+ * Execute and measure a Ehcache put operation, and verify the value put.
+ * <p>
+ * By default every put is read back inline by the operation thread. Alternatively, a sample of the puts can be
+ * read back by background verifier threads, so that the verification neither adds latency to the puts nor shows up
+ * in their statistics. The verifiers compare a checksum of the cache content with the checksum of the value that
+ * was put (the content of byte arrays, {@link Object#hashCode()} for anything else), and record each verification
+ * under {@code <cache>-verification}: {@link io.rainfall.ehcache.statistics.EhcacheResult#VERIFIED} when the value
+ * was checked, {@link io.rainfall.ehcache.statistics.EhcacheResult#VERIFICATION_SKIPPED} when the verifiers couldn't
+ * keep up, the value was no longer in the cache (evicted, expired or removed), or the same key was put concurrently
+ * or again in that cache by this operation. A different checksum is counted as an assertion error of the cache.
+ * <p>
+ * The verifier threads are started with the first sampled put and stop once idle. Run the scenario
+ * {@link Sampled#sampled sampled} by this operation, so that the end of each run waits for the verifications queued
+ * during that run, before its statistics are reported.
+ *
  * @author Aurelien Broszniowski
  */
-public class PutVerifiedOperation<K, V> extends PutOperation<K, V> {
+public class PutVerifiedOperation<K, V> extends PutOperation<K, V> implements Sampled.Sampler {
 
-  private static final Logger log = LoggerFactory.getLogger(PutOperation.class);
+  private static final Logger log = LoggerFactory.getLogger(PutVerifiedOperation.class);
+
+  private static final int QUEUE_CAPACITY = 64 * 1024;
+  private static final long VERIFIER_KEEP_ALIVE_SECONDS = 5;
+  private static final long DRAIN_TIMEOUT_IN_MS = TimeUnit.MINUTES.toMillis(1);
+  private static final long UNVERIFIABLE = -1;
+
+  private final double sampleRatio;
+  private final int verifierThreads;
+  private final ThreadPoolExecutor verifiers;
+  // per cache, the puts of the keys being put or waiting for their verification
+  private final List<ConcurrentHashMap<K, KeyPuts>> keyPuts;
+  private final AtomicLong queued = new AtomicLong();
 
   public PutVerifiedOperation(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
                               final SequenceGenerator sequenceGenerator, final Iterable<CacheDefinition<K, V>> caches) {
     super(keyGenerator, valueGenerator, sequenceGenerator, caches);
+    this.sampleRatio = 1.0;
+    this.verifierThreads = 0;
+    this.verifiers = null;
+    this.keyPuts = null;
+  }
+
+  /**
+   * @param sampleRatio ratio of the puts to verify, between 0 (excluded) and 1
+   * @param verifierThreads number of background threads reading back the sampled keys
+   */
+  public PutVerifiedOperation(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
+                              final SequenceGenerator sequenceGenerator, final Iterable<CacheDefinition<K, V>> caches,
+                              final double sampleRatio, final int verifierThreads) {
+    super(keyGenerator, valueGenerator, sequenceGenerator, caches);
+    if (sampleRatio <= 0 || sampleRatio > 1) {
+      throw new IllegalArgumentException("Sample ratio must be in ]0, 1]");
+    }
+    if (verifierThreads <= 0) {
+      throw new IllegalArgumentException("Verifier threads count must be strictly positive");
+    }
+    this.sampleRatio = sampleRatio;
+    this.verifierThreads = verifierThreads;
+    final AtomicInteger threadCount = new AtomicInteger();
+    this.verifiers = new ThreadPoolExecutor(verifierThreads, verifierThreads, VERIFIER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<Runnable>(QUEUE_CAPACITY), runnable -> {
+          Thread verifier = new Thread(runnable, "Rainfall verifier - " + threadCount.getAndIncrement());
+          verifier.setDaemon(true);
+          return verifier;
+        });
+    this.verifiers.allowCoreThreadTimeOut(true);
+    this.keyPuts = new ArrayList<ConcurrentHashMap<K, KeyPuts>>();
+    for (CacheDefinition<K, V> cacheDefinition : caches) {
+      keyPuts.add(new ConcurrentHashMap<K, KeyPuts>());
+    }
   }
 
   @Override
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+    if (verifiers == null) {
+      execInline(statisticsHolder);
+    } else {
+      execSampled(statisticsHolder);
+    }
+  }
 
+  private void execInline(final StatisticsHolder statisticsHolder) {
     final long next = this.sequenceGenerator.next();
     for (final CacheDefinition<K, V> cacheDefinition : cacheDefinitions) {
       Cache<K, V> cache = cacheDefinition.getCache();
@@ -41,14 +122,14 @@ public class PutVerifiedOperation<K, V> extends PutOperation<K, V> {
       K k = keyGenerator.generate(next);
       V v = valueGenerator.generate(next);
 
-      long start = statisticsHolder.getTimeInNs();
+      long start = ScheduledStart.getTimeInNs(statisticsHolder);
       try {
         cache.put(k, v);
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheDefinition.getName(), (end - start), PUT);
+        cacheDefinition.record(statisticsHolder, (end - start), PUT);
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheDefinition.getName(), (end - start), EXCEPTION);
+        cacheDefinition.record(statisticsHolder, (end - start), EXCEPTION);
       }
 
       V v1 = cache.get(k);
@@ -59,11 +140,193 @@ public class PutVerifiedOperation<K, V> extends PutOperation<K, V> {
     }
   }
 
+  private void execSampled(final StatisticsHolder statisticsHolder) {
+    final long next = this.sequenceGenerator.next();
+    final boolean sampled = sampleRatio >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRatio;
+    int cacheIndex = 0;
+    for (final CacheDefinition<K, V> cacheDefinition : cacheDefinitions) {
+      Cache<K, V> cache = cacheDefinition.getCache();
+      ConcurrentHashMap<K, KeyPuts> cacheKeyPuts = keyPuts.get(cacheIndex++);
+
+      K k = keyGenerator.generate(next);
+      V v = valueGenerator.generate(next);
+      KeyPuts puts = cacheKeyPuts.compute(k, KeyPuts::hold);
+      long version = puts.started();
+
+      long start = ScheduledStart.getTimeInNs(statisticsHolder);
+      try {
+        cache.put(k, v);
+        long end = statisticsHolder.getTimeInNs();
+        cacheDefinition.record(statisticsHolder, (end - start), PUT);
+      } catch (Exception e) {
+        long end = statisticsHolder.getTimeInNs();
+        cacheDefinition.record(statisticsHolder, (end - start), EXCEPTION);
+        version = UNVERIFIABLE;
+      } finally {
+        puts.completed();
+      }
+
+      if (!sampled || v == null || version == UNVERIFIABLE) {
+        cacheKeyPuts.computeIfPresent(k, KeyPuts::release);
+        if (sampled && v != null) {
+          statisticsHolder.record(cacheDefinition.getName() + "-verification", 0, VERIFICATION_SKIPPED);
+        }
+        continue;
+      }
+      Verification verification = new Verification(cache, cacheDefinition.getName(), statisticsHolder, cacheKeyPuts,
+          k, checksum(v), puts, version);
+      queued.incrementAndGet();
+      try {
+        verifiers.execute(verification);
+      } catch (RejectedExecutionException e) {
+        verification.skip(0);
+      }
+    }
+  }
+
+  private static long checksum(final Object value) {
+    if (value instanceof byte[]) {
+      CRC32 crc = new CRC32();
+      crc.update((byte[])value);
+      return crc.getValue();
+    }
+    return value.hashCode();
+  }
+
+  @Override
+  public void start() {
+    // the verifiers are started by the first sampled put
+  }
+
+  /**
+   * Waits for the verifications queued during the run, for at most a minute.
+   */
+  @Override
+  public void stop() {
+    long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_IN_MS;
+    try {
+      synchronized (queued) {
+        while (queued.get() > 0 && System.currentTimeMillis() < deadline) {
+          queued.wait(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (queued.get() > 0) {
+      log.warn("{} verifications still queued at the end of the run", queued.get());
+    }
+  }
+
   @Override
   public List<String> getDescription() {
     List<String> desc = new ArrayList<String>();
     desc.add( "put(" + keyGenerator.getDescription() + " key, " + valueGenerator.getDescription() + " value) with ASSERTION");
     desc.add(sequenceGenerator.getDescription());
+    if (verifiers != null) {
+      desc.add("Verification of " + (sampleRatio * 100) + "% of the puts by " + verifierThreads + " background threads");
+    }
     return desc;
   }
+
+  /**
+   * Puts of one key in one cache, kept while a put of the key runs or its verification is queued.
+   */
+  private static final class KeyPuts {
+    private long started;
+    private long completed;
+    private int holders;
+
+    static <K> KeyPuts hold(final K key, final KeyPuts current) {
+      KeyPuts puts = current == null ? new KeyPuts() : current;
+      puts.holders++;
+      return puts;
+    }
+
+    static <K> KeyPuts release(final K key, final KeyPuts current) {
+      return --current.holders == 0 ? null : current;
+    }
+
+    /**
+     * @return version of the put starting, or {@link #UNVERIFIABLE} if another put of the key is running
+     */
+    synchronized long started() {
+      started++;
+      return completed == started - 1 ? started : UNVERIFIABLE;
+    }
+
+    synchronized void completed() {
+      completed++;
+    }
+
+    /**
+     * @return true if no other put of the key started since the put of that version
+     */
+    synchronized boolean isLast(final long version) {
+      return started == version && completed == version;
+    }
+  }
+
+  private final class Verification implements Runnable {
+    private final Cache<K, V> cache;
+    private final String name;
+    private final StatisticsHolder statisticsHolder;
+    private final ConcurrentHashMap<K, KeyPuts> cacheKeyPuts;
+    private final K key;
+    private final long checksum;
+    private final KeyPuts puts;
+    private final long version;
+
+    Verification(final Cache<K, V> cache, final String name, final StatisticsHolder statisticsHolder,
+                 final ConcurrentHashMap<K, KeyPuts> cacheKeyPuts, final K key, final long checksum,
+                 final KeyPuts puts, final long version) {
+      this.cache = cache;
+      this.name = name;
+      this.statisticsHolder = statisticsHolder;
+      this.cacheKeyPuts = cacheKeyPuts;
+      this.key = key;
+      this.checksum = checksum;
+      this.puts = puts;
+      this.version = version;
+    }
+
+    @Override
+    public void run() {
+      long start = statisticsHolder.getTimeInNs();
+      V v1;
+      try {
+        v1 = cache.get(key);
+      } catch (Exception e) {
+        log.warn("could not read back the key {}", key, e);
+        skip(statisticsHolder.getTimeInNs() - start);
+        return;
+      }
+      long end = statisticsHolder.getTimeInNs();
+      boolean matching = v1 != null && checksum(v1) == checksum;
+      if (v1 == null || (!matching && !puts.isLast(version))) {
+        skip(end - start);
+        return;
+      }
+      if (!matching) {
+        log.error("incorrect value found in cache for the key {} : {}", key, v1);
+        statisticsHolder.increaseAssertionsErrorsCount(name);
+      }
+      statisticsHolder.record(name + "-verification", (end - start), VERIFIED);
+      done();
+    }
+
+    void skip(final long latencyInNs) {
+      statisticsHolder.record(name + "-verification", latencyInNs, VERIFICATION_SKIPPED);
+      done();
+    }
+
+    private void done() {
+      cacheKeyPuts.computeIfPresent(key, KeyPuts::release);
+      if (queued.decrementAndGet() == 0) {
+        synchronized (queued) {
+          queued.notifyAll();
+        }
+      }
+    }
+  }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache3.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.ObjectGenerator;
+import io.rainfall.SequenceGenerator;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.execution.ScheduledStart;
+import io.rainfall.ehcache3.CacheDefinition;
+import io.rainfall.ehcache3.loaderwriter.LoadTracking;
+import io.rainfall.statistics.StatisticsHolder;
+import org.ehcache.Cache;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
+import static io.rainfall.ehcache.statistics.EhcacheResult.LOAD;
+import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
+
+/**
+ * Execute and measure a Ehcache get operation on read-through caches.
+ * <p>
+ * A get served by the cache is recorded as {@link io.rainfall.ehcache.statistics.EhcacheResult#GET}, a get that
+ * went through the loader as {@link io.rainfall.ehcache.statistics.EhcacheResult#LOAD}, with its end-to-end
+ * latency, so the loads get their own latency histogram. A failed load is an
+ * {@link io.rainfall.ehcache.statistics.EhcacheResult#EXCEPTION}. The loader has to mark its loads, see
+ * {@link LoadTracking}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class ReadThroughGetOperation<K, V> extends GetOperation<K, V> {
+
+  public ReadThroughGetOperation(final ObjectGenerator<K> keyGenerator, final SequenceGenerator sequenceGenerator,
+                                 final Iterable<CacheDefinition<K, V>> cacheDefinitions) {
+    super(keyGenerator, sequenceGenerator, cacheDefinitions);
+  }
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
+      Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+
+    final long next = sequenceGenerator.next();
+    for (final CacheDefinition<K, V> cacheDefinition : cacheDefinitions) {
+      Cache<K, V> cache = cacheDefinition.getCache();
+
+      K k = keyGenerator.generate(next);
+      V value;
+
+      LoadTracking.loaded();
+      long start = ScheduledStart.getTimeInNs(statisticsHolder);
+      try {
+        value = cache.get(k);
+        long end = statisticsHolder.getTimeInNs();
+        if (LoadTracking.loaded()) {
+          cacheDefinition.record(statisticsHolder, (end - start), value == null ? MISS : LOAD);
+        } else if (value == null) {
+          cacheDefinition.record(statisticsHolder, (end - start), MISS);
+        } else {
+          cacheDefinition.record(statisticsHolder, (end - start), GET);
+        }
+      } catch (Exception e) {
+        long end = statisticsHolder.getTimeInNs();
+        cacheDefinition.record(statisticsHolder, (end - start), EXCEPTION);
+      }
+    }
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = super.getDescription();
+    desc.set(0, "read-through " + desc.get(0));
+    return desc;
+  }
+}
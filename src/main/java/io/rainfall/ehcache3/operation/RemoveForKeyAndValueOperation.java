@@ -22,6 +22,7 @@ import io.rainfall.ObjectGenerator;
 import io.rainfall.Operation;
 import io.rainfall.SequenceGenerator;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.execution.ScheduledStart;
 import io.rainfall.ehcache3.CacheDefinition;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
@@ -63,18 +64,18 @@ public class RemoveForKeyAndValueOperation<K, V> implements Operation {
       K k = keyGenerator.generate(next);
       V v = valueGenerator.generate(next);
 
-      long start = statisticsHolder.getTimeInNs();
+      long start = ScheduledStart.getTimeInNs(statisticsHolder);
       try {
         removed = cache.remove(k, v);
         long end = statisticsHolder.getTimeInNs();
         if (!removed) {
-          statisticsHolder.record(cacheDefinition.getName(), (end - start), REMOVEVALUE_MISS);
+          cacheDefinition.record(statisticsHolder, (end - start), REMOVEVALUE_MISS);
         } else {
-          statisticsHolder.record(cacheDefinition.getName(), (end - start), REMOVEVALUE);
+          cacheDefinition.record(statisticsHolder, (end - start), REMOVEVALUE);
         }
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheDefinition.getName(), (end - start), EXCEPTION);
+        cacheDefinition.record(statisticsHolder, (end - start), EXCEPTION);
       }
     }
   }
@@ -23,6 +23,7 @@ import io.rainfall.ObjectGenerator;
 import io.rainfall.Operation;
 import io.rainfall.SequenceGenerator;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.execution.ScheduledStart;
 import io.rainfall.ehcache3.CacheDefinition;
 import io.rainfall.statistics.StatisticsHolder;
 import org.ehcache.Cache;
@@ -64,18 +65,18 @@ public class ReplaceForKeyAndValueOperation<K, V> implements Operation {
       K k = keyGenerator.generate(next);
       V v = valueGenerator.generate(next + 1);
 
-      long start = statisticsHolder.getTimeInNs();
+      long start = ScheduledStart.getTimeInNs(statisticsHolder);
       try {
         replaced = cache.replace(k, v, v);
         long end = statisticsHolder.getTimeInNs();
         if (!replaced) {
-          statisticsHolder.record(cacheDefinition.getName(), (end - start), REPLACEVALUE_MISS);
+          cacheDefinition.record(statisticsHolder, (end - start), REPLACEVALUE_MISS);
         } else {
-          statisticsHolder.record(cacheDefinition.getName(), (end - start), REPLACEVALUE);
+          cacheDefinition.record(statisticsHolder, (end - start), REPLACEVALUE);
         }
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheDefinition.getName(), (end - start), EXCEPTION);
+        cacheDefinition.record(statisticsHolder, (end - start), EXCEPTION);
       }
     }
   }
@@ -23,6 +23,7 @@ import io.rainfall.ObjectGenerator;
 import io.rainfall.Operation;
 import io.rainfall.SequenceGenerator;
 import io.rainfall.TestException;
+import io.rainfall.ehcache.execution.ScheduledStart;
 import io.rainfall.ehcache3.CacheConfig;
 import io.rainfall.ehcache3.CacheDefinition;
 import io.rainfall.statistics.StatisticsHolder;
@@ -65,18 +66,18 @@ public class ReplaceOperation<K, V> implements Operation {
       K k = keyGenerator.generate(next);
       V v1 = valueGenerator.generate(next);
 
-      long start = statisticsHolder.getTimeInNs();
+      long start = ScheduledStart.getTimeInNs(statisticsHolder);
       try {
         v = cache.replace(k, v1);
         long end = statisticsHolder.getTimeInNs();
         if (v == null) {
-          statisticsHolder.record(cacheDefinition.getName(), (end - start), REPLACE_MISS);
+          cacheDefinition.record(statisticsHolder, (end - start), REPLACE_MISS);
         } else {
-          statisticsHolder.record(cacheDefinition.getName(), (end - start), REPLACE);
+          cacheDefinition.record(statisticsHolder, (end - start), REPLACE);
         }
       } catch (Exception e) {
         long end = statisticsHolder.getTimeInNs();
-        statisticsHolder.record(cacheDefinition.getName(), (end - start), EXCEPTION);
+        cacheDefinition.record(statisticsHolder, (end - start), EXCEPTION);
       }
     }
   }
@@ -21,60 +21,46 @@ import io.rainfall.Configuration;
 import io.rainfall.ObjectGenerator;
 import io.rainfall.SequenceGenerator;
 import io.rainfall.TestException;
-import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.ehcache.utils.RateLimiter;
 import io.rainfall.ehcache3.CacheDefinition;
 import io.rainfall.statistics.StatisticsHolder;
-import org.ehcache.Cache;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
-import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
-import static io.rainfall.ehcache.statistics.EhcacheResult.PUT;
-
 /**
+ * Put operation paced to at most tpsLimit executions per second.
+ * <p>
+ * The limit applies to this operation only. A thread waiting for its turn is parked, and doesn't execute any other
+ * operation meanwhile : in a scenario mixing throttled and unthrottled operations, the unthrottled ones are slowed
+ * down by the threads parked on the throttled ones. A throttled operation should run in a scenario of its own, with
+ * its own threads.
+ *
  * @author Aurelien Broszniowski
  */
 public class TpsLimitPutOperation<K, V> extends PutOperation<K, V> {
 
-  private final long tpsLimit;
+  private final RateLimiter rateLimiter;
 
   public TpsLimitPutOperation(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
                               final SequenceGenerator sequenceGenerator, final long tpsLimit, final Iterable<CacheDefinition<K, V>> caches) {
     super(keyGenerator, valueGenerator, sequenceGenerator, caches);
-    this.tpsLimit = tpsLimit;
+    this.rateLimiter = new RateLimiter(tpsLimit);
   }
 
   @Override
   public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>,
       Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
-
-    final long next = this.sequenceGenerator.next();
-    long currentTps = statisticsHolder.getCurrentTps(EhcacheResult.PUT);
-    if (currentTps < this.tpsLimit) {
-      for (final CacheDefinition<K, V> cacheDefinition : cacheDefinitions) {
-        Cache<K, V> cache = cacheDefinition.getCache();
-        K k = keyGenerator.generate(next);
-        V v = valueGenerator.generate(next);
-
-        long start = statisticsHolder.getTimeInNs();
-        try {
-          cache.put(k, v);
-          long end = statisticsHolder.getTimeInNs();
-          statisticsHolder.record(cacheDefinition.getName(), (end - start), PUT);
-        } catch (Exception e) {
-          long end = statisticsHolder.getTimeInNs();
-          statisticsHolder.record(cacheDefinition.getName(), (end - start), EXCEPTION);
-        }
-      }
-    }
+    rateLimiter.acquire();
+    super.exec(statisticsHolder, configurations, assertions);
   }
 
   @Override
   public List<String> getDescription() {
     List<String> desc = new ArrayList<String>();
-    desc.add("THROTTLED put(" + keyGenerator.getDescription() + " key, " + valueGenerator.getDescription() + " value)");
+    desc.add("THROTTLED put(" + keyGenerator.getDescription() + " key, " + valueGenerator.getDescription() + " value) at "
+             + rateLimiter.getPermitsPerSecond() + " tps");
     desc.add(sequenceGenerator.getDescription());
     return desc;
   }
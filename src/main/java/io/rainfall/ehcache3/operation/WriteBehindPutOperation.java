@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache3.operation;
+
+import io.rainfall.AssertionEvaluator;
+import io.rainfall.Configuration;
+import io.rainfall.ObjectGenerator;
+import io.rainfall.SequenceGenerator;
+import io.rainfall.TestException;
+import io.rainfall.ehcache.execution.ScheduledStart;
+import io.rainfall.ehcache3.CacheDefinition;
+import io.rainfall.ehcache3.loaderwriter.WriteBehindTracker;
+import io.rainfall.statistics.StatisticsHolder;
+import org.ehcache.Cache;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static io.rainfall.ehcache.statistics.EhcacheResult.EXCEPTION;
+import static io.rainfall.ehcache.statistics.EhcacheResult.PUT;
+
+/**
+ * Execute and measure a Ehcache put operation on a write-behind cache, and report each put to the
+ * {@link WriteBehindTracker} of the cache, which measures how long it takes to reach the writer.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class WriteBehindPutOperation<K, V> extends PutOperation<K, V> {
+
+  private final CacheDefinition<K, V> cacheDefinition;
+  private final WriteBehindTracker tracker;
+
+  public WriteBehindPutOperation(final ObjectGenerator<K> keyGenerator, final ObjectGenerator<V> valueGenerator,
+                                 final SequenceGenerator sequenceGenerator, final CacheDefinition<K, V> cacheDefinition,
+                                 final WriteBehindTracker tracker) {
+    super(keyGenerator, valueGenerator, sequenceGenerator, Collections.singletonList(cacheDefinition));
+    this.cacheDefinition = cacheDefinition;
+    this.tracker = tracker;
+  }
+
+  @Override
+  public void exec(final StatisticsHolder statisticsHolder, final Map<Class<? extends Configuration>, Configuration> configurations, final List<AssertionEvaluator> assertions) throws TestException {
+    final long next = this.sequenceGenerator.next();
+    Cache<K, V> cache = cacheDefinition.getCache();
+
+    K k = keyGenerator.generate(next);
+    V v = valueGenerator.generate(next);
+    Long stamp = tracker.put(k);
+    long start = ScheduledStart.getTimeInNs(statisticsHolder);
+    try {
+      cache.put(k, v);
+      long end = statisticsHolder.getTimeInNs();
+      cacheDefinition.record(statisticsHolder, (end - start), PUT);
+    } catch (Exception e) {
+      long end = statisticsHolder.getTimeInNs();
+      cacheDefinition.record(statisticsHolder, (end - start), EXCEPTION);
+      tracker.discard(k, stamp);
+    }
+  }
+
+  @Override
+  public List<String> getDescription() {
+    List<String> desc = super.getDescription();
+    desc.add("Write-behind lag reported as " + tracker.getName());
+    return desc;
+  }
+}
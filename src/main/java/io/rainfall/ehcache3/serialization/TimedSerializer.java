@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache3.serialization;
+
+import io.rainfall.ehcache.statistics.Instruments;
+import org.HdrHistogram.Histogram;
+import org.ehcache.impl.serialization.CompactJavaSerializer;
+import org.ehcache.spi.serialization.Serializer;
+import org.ehcache.spi.serialization.SerializerException;
+
+import java.nio.ByteBuffer;
+
+import static io.rainfall.ehcache.statistics.Instruments.Unit.BYTES;
+import static io.rainfall.ehcache.statistics.Instruments.Unit.NANOSECONDS;
+
+/**
+ * Ehcache 3 {@link Serializer} decorator measuring the cost of the serialization in the offheap and disk tiers.
+ * <p>
+ * The serializer must be the one the cache was configured with, e.g. with
+ * {@link org.ehcache.config.builders.CacheConfigurationBuilder#withValueSerializer(Serializer)}. It registers
+ * three {@link Instruments} : the time spent serializing and deserializing, in ns, under its name followed by
+ * "-serialize" and "-deserialize", and the size of the serialized forms, in bytes, under its name followed by
+ * "-serialized-bytes". The {@link #equals(Object, ByteBuffer)} comparisons are not measured.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TimedSerializer<T> implements Serializer<T> {
+
+  private final Serializer<T> delegate;
+  private final Histogram serializeTimes;
+  private final Histogram deserializeTimes;
+  private final Histogram sizes;
+
+  public TimedSerializer(final Serializer<T> delegate, final Instruments instruments, final String name) {
+    this.delegate = delegate;
+    this.serializeTimes = instruments.register(name + "-serialize", NANOSECONDS);
+    this.deserializeTimes = instruments.register(name + "-deserialize", NANOSECONDS);
+    this.sizes = instruments.register(name + "-serialized-bytes", BYTES);
+  }
+
+  public static <T> TimedSerializer<T> timed(final Serializer<T> delegate, final Instruments instruments, final String name) {
+    return new TimedSerializer<T>(delegate, instruments, name);
+  }
+
+  /**
+   * Java serialization, as used by default by Ehcache 3 for the {@link java.io.Serializable} types.
+   */
+  public static <T> TimedSerializer<T> javaSerialization(final ClassLoader classLoader, final Instruments instruments,
+                                                         final String name) {
+    return new TimedSerializer<T>(new CompactJavaSerializer<T>(classLoader), instruments, name);
+  }
+
+  @Override
+  public ByteBuffer serialize(final T object) throws SerializerException {
+    long start = System.nanoTime();
+    ByteBuffer serialized = delegate.serialize(object);
+    long end = System.nanoTime();
+    serializeTimes.recordValue(end - start);
+    sizes.recordValue(serialized.remaining());
+    return serialized;
+  }
+
+  @Override
+  public T read(final ByteBuffer binary) throws ClassNotFoundException, SerializerException {
+    long start = System.nanoTime();
+    T object = delegate.read(binary);
+    long end = System.nanoTime();
+    deserializeTimes.recordValue(end - start);
+    return object;
+  }
+
+  @Override
+  public boolean equals(final T object, final ByteBuffer binary) throws ClassNotFoundException, SerializerException {
+    return delegate.equals(object, binary);
+  }
+}
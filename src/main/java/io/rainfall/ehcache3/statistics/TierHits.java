@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache3.statistics;
+
+import io.rainfall.ehcache.execution.Sampled;
+import io.rainfall.ehcache3.CacheDefinition;
+import org.terracotta.context.ContextManager;
+import org.terracotta.context.TreeNode;
+import org.terracotta.statistics.OperationStatistic;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.terracotta.context.query.Matchers.context;
+import static org.terracotta.context.query.Matchers.identifier;
+import static org.terracotta.context.query.Matchers.subclassOf;
+import static org.terracotta.context.query.QueryBuilder.queryBuilder;
+
+/**
+ * Samples, at a fixed period, which tier of each Ehcache 3 cache served the hits : heap, offheap or disk.
+ * <p>
+ * The hit counters of the tiers are read from the Ehcache statistics of the cache, so the operations don't pay
+ * anything for it. Each sample is appended to a tier-hits-&lt;cache name&gt;.csv file, with the share of the gets
+ * of the interval served by each tier, to be read next to the latency report of the same run.
+ * <p>
+ * Only single key gets are counted : Ehcache 3 serves {@code getAll} through the bulk compute of the store, which
+ * is not part of these statistics. The caches are registered with {@link #track(Iterable)} and sampled while the
+ * execution runs, see {@link Sampled}.
+ *
+ * @author Aurelien Broszniowski
+ */
+public class TierHits implements Sampled.Sampler, Closeable {
+
+  private static final Set<String> GET_STATISTICS = new HashSet<String>(Arrays.asList(
+      "get", "getOrComputeIfAbsent", "getAndFault", "getAndRemove", "computeIfAbsentAndFault"));
+
+  enum Tier {
+    HEAP("onheap-store"), OFFHEAP("local-offheap"), DISK("local-disk");
+
+    private final String tag;
+
+    Tier(final String tag) {
+      this.tag = tag;
+    }
+  }
+
+  private final long periodInNs;
+  private final File directory;
+  private final List<TrackedCache> trackedCaches = new CopyOnWriteArrayList<TrackedCache>();
+  private final Set<CacheDefinition<?, ?>> cacheDefinitions = new LinkedHashSet<CacheDefinition<?, ?>>();
+  private ScheduledExecutorService sampler;
+  private long startTime;
+
+  public TierHits(final long period, final TimeUnit timeUnit, final File directory) {
+    if (period <= 0) {
+      throw new IllegalArgumentException("Sampling period must be strictly positive");
+    }
+    this.periodInNs = timeUnit.toNanos(period);
+    this.directory = directory;
+  }
+
+  public static TierHits tierHits(final long period, final TimeUnit timeUnit, final String directory) {
+    return new TierHits(period, timeUnit, new File(directory));
+  }
+
+  /**
+   * Registers the caches to sample from the next {@link #start()}.
+   */
+  public synchronized TierHits track(final Iterable<? extends CacheDefinition<?, ?>> cacheDefinitions) {
+    for (CacheDefinition<?, ?> cacheDefinition : cacheDefinitions) {
+      this.cacheDefinitions.add(cacheDefinition);
+    }
+    return this;
+  }
+
+  /**
+   * Starts sampling the tiers of the registered caches, in new report files. The caches must be initialized.
+   */
+  @Override
+  public synchronized void start() {
+    if (sampler == null) {
+      for (CacheDefinition<?, ?> cacheDefinition : cacheDefinitions) {
+        trackedCaches.add(new TrackedCache(cacheDefinition.getName(), cacheDefinition.getCache(), directory));
+      }
+      startTime = System.nanoTime();
+      sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Rainfall-ehcache tier hits sampler");
+        thread.setDaemon(true);
+        return thread;
+      });
+      sampler.scheduleAtFixedRate(this::sample, periodInNs, periodInNs, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  public long getPeriodInNs() {
+    return periodInNs;
+  }
+
+  private void sample() {
+    long elapsedInMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    for (TrackedCache trackedCache : trackedCaches) {
+      trackedCache.sample(elapsedInMs);
+    }
+  }
+
+  /**
+   * Stops sampling, takes a last sample and closes the report files.
+   */
+  @Override
+  public synchronized void stop() {
+    if (sampler != null) {
+      sampler.shutdown();
+      try {
+        sampler.awaitTermination(periodInNs, TimeUnit.NANOSECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      sample();
+      sampler = null;
+      for (TrackedCache trackedCache : trackedCaches) {
+        trackedCache.close();
+      }
+      trackedCaches.clear();
+    }
+  }
+
+  @Override
+  public void close() {
+    stop();
+  }
+
+  static final class TrackedCache {
+
+    private final OperationStatistic<?> cacheGets;
+    private final List<List<OperationStatistic<?>>> tierGets = new ArrayList<List<OperationStatistic<?>>>();
+    private final long[] lastHits = new long[Tier.values().length];
+    private long lastGets;
+    private final PrintWriter out;
+
+    TrackedCache(final String name, final Object cache, final File directory) {
+      for (Tier ignored : Tier.values()) {
+        tierGets.add(new ArrayList<OperationStatistic<?>>());
+      }
+      OperationStatistic<?> gets = null;
+      TreeNode node = ContextManager.nodeFor(cache);
+      Set<TreeNode> statistics = node == null ? Collections.<TreeNode>emptySet() : queryBuilder().descendants()
+          .filter(context(identifier(subclassOf(OperationStatistic.class))))
+          .build().execute(Collections.singleton(node));
+      for (TreeNode statistic : statistics) {
+        Map<String, Object> attributes = statistic.getContext().attributes();
+        Object tags = attributes.get("tags");
+        Object statName = attributes.get("name");
+        if (!(tags instanceof Set) || !GET_STATISTICS.contains(statName)) {
+          continue;
+        }
+        if (((Set<?>)tags).contains("cache") && "get".equals(statName)) {
+          gets = (OperationStatistic<?>)attributes.get("this");
+        }
+        for (Tier tier : Tier.values()) {
+          if (((Set<?>)tags).contains(tier.tag)) {
+            tierGets.get(tier.ordinal()).add((OperationStatistic<?>)attributes.get("this"));
+          }
+        }
+      }
+      if (gets == null) {
+        throw new IllegalArgumentException("No Ehcache 3 statistics found for cache " + name);
+      }
+      this.cacheGets = gets;
+
+      directory.mkdirs();
+      try {
+        this.out = new PrintWriter(new File(directory, "tier-hits-" + name + ".csv"), "UTF-8");
+      } catch (IOException e) {
+        throw new IllegalArgumentException("Can not create the tier hits report of cache " + name, e);
+      }
+      out.println("time (ms),gets,heap hits,offheap hits,disk hits,heap %,offheap %,disk %,miss %");
+      this.lastGets = cacheGets.sum();
+      for (Tier tier : Tier.values()) {
+        lastHits[tier.ordinal()] = hits(tierGets.get(tier.ordinal()));
+      }
+    }
+
+    synchronized void sample(final long elapsedInMs) {
+      long gets = cacheGets.sum();
+      long intervalGets = gets - lastGets;
+      lastGets = gets;
+
+      long[] intervalHits = new long[lastHits.length];
+      long intervalTotalHits = 0;
+      for (Tier tier : Tier.values()) {
+        long hits = hits(tierGets.get(tier.ordinal()));
+        intervalHits[tier.ordinal()] = hits - lastHits[tier.ordinal()];
+        intervalTotalHits += intervalHits[tier.ordinal()];
+        lastHits[tier.ordinal()] = hits;
+      }
+
+      StringBuilder sb = new StringBuilder().append(elapsedInMs).append(',').append(intervalGets);
+      for (long hits : intervalHits) {
+        sb.append(',').append(hits);
+      }
+      for (long hits : intervalHits) {
+        sb.append(',').append(percent(hits, intervalGets));
+      }
+      sb.append(',').append(percent(Math.max(0, intervalGets - intervalTotalHits), intervalGets));
+      out.println(sb);
+      out.flush();
+    }
+
+    synchronized void close() {
+      out.close();
+    }
+
+    private static long hits(final List<OperationStatistic<?>> statistics) {
+      long hits = 0;
+      for (OperationStatistic<?> statistic : statistics) {
+        hits += hits(statistic);
+      }
+      return hits;
+    }
+
+    private static <T extends Enum<T>> long hits(final OperationStatistic<T> statistic) {
+      long hits = 0;
+      for (T outcome : statistic.type().getEnumConstants()) {
+        if (outcome.name().startsWith("HIT")) {
+          hits += statistic.count(outcome);
+        }
+      }
+      return hits;
+    }
+
+    private static String percent(final long count, final long total) {
+      return total == 0 ? "0.00" : String.format(Locale.ROOT, "%.2f", 100.0 * count / total);
+    }
+  }
+}
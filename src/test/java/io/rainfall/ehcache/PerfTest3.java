@@ -23,6 +23,7 @@ import io.rainfall.ScenarioRun;
 import io.rainfall.SyntaxException;
 import io.rainfall.configuration.ConcurrencyConfig;
 import io.rainfall.configuration.ReportingConfig;
+import io.rainfall.ehcache.footprint.Footprint;
 import io.rainfall.ehcache.statistics.EhcacheResult;
 import io.rainfall.ehcache3.CacheConfig;
 import io.rainfall.ehcache3.CacheDefinition;
@@ -56,6 +57,7 @@ import static io.rainfall.configuration.ReportingConfig.hlog;
 import static io.rainfall.configuration.ReportingConfig.html;
 import static io.rainfall.configuration.ReportingConfig.report;
 import static io.rainfall.configuration.ReportingConfig.text;
+import static io.rainfall.ehcache.execution.ConstantArrivalRate.constantArrivalRate;
 import static io.rainfall.ehcache.statistics.EhcacheResult.GET;
 import static io.rainfall.ehcache.statistics.EhcacheResult.MISS;
 import static io.rainfall.ehcache.statistics.EhcacheResult.PUT;
@@ -255,6 +257,66 @@ public class PerfTest3 {
     cacheManager.close();
   }
 
+  @Test
+  @Ignore
+  public void testConstantArrivalRate() throws SyntaxException {
+    CacheConfigurationBuilder<Long, byte[]> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder(Long.class, byte[].class,
+        newResourcePoolsBuilder().heap(250000, EntryUnit.ENTRIES).build());
+
+    final CacheManager cacheManager = newCacheManagerBuilder()
+        .withCache("one", builder.build())
+        .build(true);
+
+    final Cache<Long, byte[]> one = cacheManager.getCache("one", Long.class, byte[].class);
+
+    ConcurrencyConfig concurrency = ConcurrencyConfig.concurrencyConfig().threads(4).timeout(50, MINUTES);
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<byte[]> valueGenerator = fixedLengthByteArray(1000);
+
+    EhcacheResult[] resultsReported = new EhcacheResult[] { GET, PUT, MISS };
+
+    Scenario scenario = scenario("Test phase").exec(
+        weighted(0.10, put(keyGenerator, valueGenerator, atRandom(GAUSSIAN, 0, 250000, 25000), singletonList(cache("one", one)))),
+        weighted(0.90, get(keyGenerator, atRandom(GAUSSIAN, 0, 250000, 25000), singletonList(cache("one", one))))
+    );
+
+    System.out.println("----------> Test phase");
+    Runner.setUp(scenario)
+        .executed(constantArrivalRate(100000, 30, seconds))
+        .config(concurrency,
+            ReportingConfig.report(EhcacheResult.class, resultsReported)
+                .log(text(), hlog("constant-arrival-rate")))
+        .config(cacheConfig(Long.class, byte[].class).cache("one", one)
+        )
+        .start();
+    System.out.println("----------> Done");
+
+    cacheManager.close();
+  }
+
+  @Test
+  @Ignore
+  public void testFootprint() {
+    long nbElements = 100000;
+    CacheManager cacheManager = newCacheManagerBuilder()
+        .withCache("heapEntries", CacheConfigurationBuilder.newCacheConfigurationBuilder(Long.class, byte[].class,
+            newResourcePoolsBuilder().heap(nbElements, EntryUnit.ENTRIES).build()))
+        .withCache("heapBytes", CacheConfigurationBuilder.newCacheConfigurationBuilder(Long.class, byte[].class,
+            newResourcePoolsBuilder().heap(100, MemoryUnit.MB).build()))
+        .build(true);
+
+    ObjectGenerator<Long> keyGenerator = new LongGenerator();
+    ObjectGenerator<byte[]> valueGenerator = fixedLengthByteArray(100);
+
+    for (String alias : asList("heapEntries", "heapBytes")) {
+      CacheDefinition<Long, byte[]> cacheDefinition = cache(alias, cacheManager.getCache(alias, Long.class, byte[].class));
+      System.out.println(Footprint.measure(cacheDefinition, keyGenerator, valueGenerator, nbElements));
+    }
+
+    cacheManager.close();
+  }
+
   @Test
   @Ignore
   public void testWarmup() throws SyntaxException {
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.generator;
+
+import io.rainfall.Operation;
+import io.rainfall.SequenceGenerator;
+import io.rainfall.ehcache.statistics.EhcacheResult;
+import io.rainfall.ehcache3.Ehcache3Operations;
+import io.rainfall.generator.LongGenerator;
+import io.rainfall.statistics.StatisticsHolder;
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.units.EntryUnit;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static io.rainfall.ehcache3.CacheDefinition.cache;
+import static java.util.Collections.singletonList;
+import static org.ehcache.config.builders.CacheConfigurationBuilder.newCacheConfigurationBuilder;
+import static org.ehcache.config.builders.CacheManagerBuilder.newCacheManagerBuilder;
+import static org.ehcache.config.builders.ResourcePoolsBuilder.newResourcePoolsBuilder;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class BatchSequenceTest {
+
+  @Test
+  public void testContiguousAndStridedSeeds() {
+    assertEquals(Arrays.asList(10L, 11L, 12L), seeds(BatchSequence.contiguous(), null, 10L, 3));
+    assertEquals(Arrays.asList(10L, 15L, 20L), seeds(BatchSequence.strided(5), null, 10L, 3));
+  }
+
+  @Test
+  public void testSeedsFromDistributionAreDrawnAfterTheFirstOne() {
+    assertEquals(Arrays.asList(10L, 0L, 1L), seeds(BatchSequence.fromDistribution(), new Cycling(100), 10L, 3));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testStrideMustBePositive() {
+    BatchSequence.strided(0);
+  }
+
+  // a sequence over 3 seeds can't fill a batch of 10 distinct keys, the batch stops after the allowed draws
+  @Test
+  public void testBulkOperationBatchesHoldDistinctKeys() throws Exception {
+    CacheManager cacheManager = newCacheManagerBuilder()
+        .withCache("one", newCacheConfigurationBuilder(Long.class, Long.class,
+            newResourcePoolsBuilder().heap(100, EntryUnit.ENTRIES).build()).build())
+        .build(true);
+    try {
+      Cache<Long, Long> one = cacheManager.getCache("one", Long.class, Long.class);
+      Operation getAll = Ehcache3Operations.getAll(new LongGenerator(), new Cycling(3), 10, singletonList(cache("one", one)));
+      List<Object> records = new ArrayList<Object>();
+      getAll.exec(recordingHolder(records), Collections.emptyMap(), Collections.emptyList());
+      assertEquals(3, records.size());
+
+      records.clear();
+      Operation contiguous = Ehcache3Operations.getAll(new LongGenerator(), new Cycling(3), 10, BatchSequence.contiguous(),
+          singletonList(cache("one", one)));
+      contiguous.exec(recordingHolder(records), Collections.emptyMap(), Collections.emptyList());
+      assertEquals(10, records.size());
+    } finally {
+      cacheManager.close();
+    }
+  }
+
+  private static List<Long> seeds(final BatchSequence batchSequence, final SequenceGenerator sequenceGenerator,
+                                  final long first, final int count) {
+    List<Long> seeds = new ArrayList<Long>();
+    for (int i = 0; i < count; i++) {
+      seeds.add(batchSequence.seed(sequenceGenerator, first, i));
+    }
+    return seeds;
+  }
+
+  // keeps the results recorded, whatever the methods of the holder of the rainfall-core version
+  @SuppressWarnings("unchecked")
+  private static StatisticsHolder<EhcacheResult> recordingHolder(final List<Object> records) {
+    return (StatisticsHolder<EhcacheResult>)Proxy.newProxyInstance(BatchSequenceTest.class.getClassLoader(),
+        new Class<?>[] { StatisticsHolder.class }, (proxy, method, args) -> {
+          if (method.getName().equals("record")) {
+            records.add(args[2]);
+          } else if (method.getName().equals("getTimeInNs")) {
+            return System.nanoTime();
+          }
+          return null;
+        });
+  }
+
+  private static class Cycling implements SequenceGenerator {
+
+    private final long size;
+    private long next = 0;
+
+    Cycling(final long size) {
+      this.size = size;
+    }
+
+    @Override
+    public long next() {
+      return next++ % size;
+    }
+
+    @Override
+    public String getDescription() {
+      return "cycling over " + size + " seeds";
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.generator;
+
+import io.rainfall.SequenceGenerator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static io.rainfall.generator.sequence.Distribution.FLAT;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class PerThreadSequenceTest {
+
+  @Test
+  public void testNextThreadCarriesOnWithTheSeeds() throws Exception {
+    SequenceGenerator sequence = PerThreadSequence.interleaved(2);
+    List<Long> first = draw(sequence, 3);
+    List<Long> second = draw(sequence, 3);
+    // the first thread terminated before the second one drew, so the second one took its lane over
+    assertEquals(Arrays.asList(0L, 2L, 4L), first);
+    assertEquals(Arrays.asList(6L, 8L, 10L), second);
+  }
+
+  @Test
+  public void testLaneIsHandedOverToTheNextThread() throws Exception {
+    final SequenceGenerator sequence = PerThreadSequence.interleaved(2);
+    final List<Long> running = new ArrayList<Long>();
+    final CountDownLatch drawn = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    Thread owner = new Thread(() -> {
+      running.add(sequence.next());
+      drawn.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        return;
+      }
+      running.add(sequence.next());
+    });
+    owner.start();
+    drawn.await();
+
+    // lane 0 is owned by the running thread, a new thread gets lane 1, then hands it over when it terminates
+    assertEquals(Arrays.asList(1L, 3L), draw(sequence, 2));
+    assertEquals(Arrays.asList(5L, 7L), draw(sequence, 2));
+
+    release.countDown();
+    owner.join();
+    assertEquals(Arrays.asList(0L, 2L), running);
+  }
+
+  @Test
+  public void testBlockedThreadsDrawWholeBlocks() throws Exception {
+    SequenceGenerator sequence = PerThreadSequence.blocked(4);
+    assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L), draw(sequence, 5));
+    assertEquals(Arrays.asList(8L, 9L), draw(sequence, 2));
+  }
+
+  @Test
+  public void testSeededRandomStreamsAreReproducible() throws Exception {
+    SequenceGenerator one = PerThreadSequence.atRandom(FLAT, 0, 1000, 0, 42L);
+    SequenceGenerator two = PerThreadSequence.atRandom(FLAT, 0, 1000, 0, 42L);
+    assertEquals(draw(one, 100), draw(two, 100));
+    assertEquals(draw(one, 100), draw(two, 100));
+  }
+
+  // draws in a new thread, which has terminated when this returns
+  private static List<Long> draw(final SequenceGenerator sequence, final int count) throws InterruptedException {
+    final List<Long> seeds = new ArrayList<Long>();
+    Thread thread = new Thread(() -> {
+      for (int i = 0; i < count; i++) {
+        seeds.add(sequence.next());
+      }
+    });
+    thread.start();
+    thread.join();
+    return seeds;
+  }
+}
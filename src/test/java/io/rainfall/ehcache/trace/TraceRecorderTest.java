@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.trace;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class TraceRecorderTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testRecordsAreReadBack() throws Exception {
+    File file = folder.newFile("trace.bin");
+    TraceRecorder recorder = new TraceRecorder(file, 1024, 1, TimeUnit.MILLISECONDS);
+    recorder.record(TraceOp.PUT, 1L, 100);
+    recorder.record(TraceOp.GET, 1L, -1);
+    recorder.record(TraceOp.REMOVE, "two", -1);
+    recorder.record(TraceOp.PUT_ALL, 3L, 12);
+    recorder.close();
+
+    assertEquals(0, recorder.getDroppedCount());
+    TraceReader reader = new TraceReader(file);
+    try {
+      assertEquals(4, reader.size());
+      assertEquals(TraceOp.PUT, reader.op(0));
+      assertEquals(Long.valueOf(1L).hashCode(), reader.keyId(0));
+      assertEquals(100, reader.valueSize(0));
+      assertEquals(TraceOp.GET, reader.op(1));
+      assertEquals(-1, reader.valueSize(1));
+      assertEquals(TraceOp.REMOVE, reader.op(2));
+      assertEquals("two".hashCode() & 0xFFFFFFFFL, reader.keyId(2));
+      assertEquals(TraceOp.PUT_ALL, reader.op(3));
+      assertEquals(12, reader.valueSize(3));
+      for (long i = 1; i < reader.size(); i++) {
+        assertTrue(reader.timestamp(i - 1) <= reader.timestamp(i));
+      }
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void testRecordsOfAllThreadsAreReadBack() throws Exception {
+    final int threadCount = 4;
+    final int recordsPerThread = 10000;
+    File file = folder.newFile("trace.bin");
+    final TraceRecorder recorder = new TraceRecorder(file, 16 * 1024, 1, TimeUnit.MILLISECONDS);
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int t = 0; t < threadCount; t++) {
+      final long firstKey = (long)t * recordsPerThread;
+      Thread thread = new Thread(() -> {
+        for (long key = firstKey; key < firstKey + recordsPerThread; key++) {
+          recorder.record(TraceOp.PUT, key, (int)key);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    recorder.close();
+
+    assertEquals(0, recorder.getDroppedCount());
+    TraceReader reader = new TraceReader(file);
+    try {
+      assertEquals(threadCount * recordsPerThread, reader.size());
+      List<Long> keys = new ArrayList<Long>();
+      for (long i = 0; i < reader.size(); i++) {
+        assertEquals(TraceOp.PUT, reader.op(i));
+        assertEquals(reader.keyId(i), reader.valueSize(i));
+        keys.add(reader.keyId(i));
+      }
+      Collections.sort(keys);
+      for (int i = 0; i < keys.size(); i++) {
+        assertEquals(i, keys.get(i).longValue());
+      }
+    } finally {
+      reader.close();
+    }
+  }
+}
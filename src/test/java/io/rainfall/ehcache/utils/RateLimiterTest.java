@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache.utils;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class RateLimiterTest {
+
+  // a second is not a multiple of the rate : an interval truncated to 333 ns would hand out the permits 0.1% early
+  @Test
+  public void testPermitsAreNotHandedOutFasterThanTheRate() {
+    long permitsPerSecond = 3000000L;
+    RateLimiter rateLimiter = new RateLimiter(permitsPerSecond);
+    long start = System.nanoTime();
+    for (long i = 0; i < permitsPerSecond; i++) {
+      rateLimiter.acquire();
+    }
+    long elapsed = System.nanoTime() - start;
+    long lastSlot = (permitsPerSecond - 1) * TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+    assertTrue("Permits handed out in " + elapsed + " ns", elapsed >= lastSlot);
+    assertTrue("Permits handed out in " + elapsed + " ns", elapsed < TimeUnit.SECONDS.toNanos(2));
+  }
+
+  @Test
+  public void testThreadsShareTheRate() throws Exception {
+    final long permitsPerSecond = 1000L;
+    final RateLimiter rateLimiter = new RateLimiter(permitsPerSecond);
+    Thread[] threads = new Thread[4];
+    long start = System.nanoTime();
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < permitsPerSecond / 4; i++) {
+          rateLimiter.acquire();
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    long elapsed = System.nanoTime() - start;
+    assertTrue("Permits handed out in " + elapsed + " ns", elapsed >= TimeUnit.MILLISECONDS.toNanos(999));
+    assertTrue("Permits handed out in " + elapsed + " ns", elapsed < TimeUnit.SECONDS.toNanos(2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRateMustBePositive() {
+    new RateLimiter(0);
+  }
+}
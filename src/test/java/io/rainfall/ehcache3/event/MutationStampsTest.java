@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2014-2023 Aurélien Broszniowski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.rainfall.ehcache3.event;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Aurelien Broszniowski
+ */
+public class MutationStampsTest {
+
+  @Test
+  public void testStampIsTakenOnce() {
+    MutationStamps<Long> stamps = new MutationStamps<Long>();
+    Long stamp = stamps.stamp(1L);
+    assertEquals(stamp, stamps.take(1L));
+    assertNull(stamps.take(1L));
+  }
+
+  @Test
+  public void testLaterMutationReplacesTheStamp() throws Exception {
+    MutationStamps<Long> stamps = new MutationStamps<Long>();
+    stamps.stamp(1L);
+    Thread.sleep(1);
+    Long later = stamps.stamp(1L);
+    assertEquals(later, stamps.take(1L));
+  }
+
+  @Test
+  public void testDiscardKeepsTheStampOfALaterMutation() throws Exception {
+    MutationStamps<Long> stamps = new MutationStamps<Long>();
+    Long earlier = stamps.stamp(1L);
+    Thread.sleep(1);
+    Long later = stamps.stamp(1L);
+    stamps.discard(1L, earlier);
+    assertEquals(later, stamps.take(1L));
+  }
+
+  @Test
+  public void testDiscardDropsTheStamp() {
+    MutationStamps<Long> stamps = new MutationStamps<Long>();
+    Long stamp = stamps.stamp(1L);
+    stamps.stamp(2L);
+    stamps.discard(1L, stamp);
+    assertNull(stamps.take(1L));
+    assertNotNull(stamps.take(2L));
+  }
+}